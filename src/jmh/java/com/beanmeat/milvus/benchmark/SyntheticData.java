@@ -0,0 +1,67 @@
+package com.beanmeat.milvus.benchmark;
+
+import com.alibaba.fastjson2.JSON;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * 基准测试用的合成数据，固定随机种子保证可复现
+ */
+public final class SyntheticData {
+
+    /**
+     * bge-m3 向量维度
+     */
+    public static final int DIMENSION = 1024;
+
+    private SyntheticData() {
+    }
+
+    public static float[] vector(Random random) {
+        float[] vector = new float[DIMENSION];
+        for (int i = 0; i < DIMENSION; i++) {
+            vector[i] = random.nextFloat() * 2 - 1;
+        }
+        return vector;
+    }
+
+    public static List<Float> vectorList(Random random) {
+        List<Float> vector = new ArrayList<>(DIMENSION);
+        for (float value : vector(random)) {
+            vector.add(value);
+        }
+        return vector;
+    }
+
+    public static String description(int index) {
+        return "绿化养护巡查记录 " + index + "：主干道东侧水管破裂，已通知维修班组处理";
+    }
+
+    /**
+     * Ollama /api/embeddings 单条响应
+     */
+    public static String embeddingResponse(Random random) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("embedding", vector(random));
+        return JSON.toJSONString(response);
+    }
+
+    /**
+     * Ollama /api/embed 批量响应
+     */
+    public static String embedResponse(Random random, int count) {
+        List<float[]> embeddings = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            embeddings.add(vector(random));
+        }
+        Map<String, Object> response = new HashMap<>();
+        response.put("model", "bge-m3");
+        response.put("embeddings", embeddings);
+        response.put("total_duration", 123456789L);
+        return JSON.toJSONString(response);
+    }
+}
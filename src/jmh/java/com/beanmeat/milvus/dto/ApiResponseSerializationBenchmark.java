@@ -0,0 +1,51 @@
+package com.beanmeat.milvus.dto;
+
+import com.beanmeat.milvus.benchmark.SyntheticData;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 大结果集的ApiResponse序列化（与Spring MVC相同的Jackson ObjectMapper）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ApiResponseSerializationBenchmark {
+
+    @Param({"100", "1000"})
+    private int size;
+
+    @Param({"false", "true"})
+    private boolean includeVector;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private ApiResponse<List<VectorSearchResult>> response;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        List<VectorSearchResult> results = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            results.add(VectorSearchResult.builder()
+                    .id(1718000000000L + i)
+                    .score(1.0f - i * 0.0001f)
+                    .description(SyntheticData.description(i))
+                    .segment(1)
+                    .descriptionVector(includeVector ? SyntheticData.vector(random) : null)
+                    .build());
+        }
+        response = ApiResponse.success(results);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(response);
+    }
+}
@@ -0,0 +1,52 @@
+package com.beanmeat.milvus.embedding;
+
+import com.alibaba.fastjson2.JSON;
+import com.beanmeat.milvus.benchmark.SyntheticData;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 向量模型响应解析：原getVector的字符串往返解析 vs 流式解码器
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EmbeddingDecodeBenchmark {
+
+    @Param({"1", "32"})
+    private int batchSize;
+
+    private String singleResponse;
+    private byte[] singleBytes;
+    private byte[] batchBytes;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        singleResponse = SyntheticData.embeddingResponse(random);
+        singleBytes = singleResponse.getBytes(StandardCharsets.UTF_8);
+        batchBytes = SyntheticData.embedResponse(random, batchSize).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 原实现：解析为JSONObject，取字段转回字符串，再解析为List<Float>
+     */
+    @Benchmark
+    public List<Float> legacyGetVector() {
+        return JSON.parseArray(JSON.parseObject(singleResponse).get("embedding").toString(), Float.class);
+    }
+
+    @Benchmark
+    public List<float[]> decodeSingle() {
+        return EmbeddingResponseDecoder.decode(singleBytes);
+    }
+
+    @Benchmark
+    public List<float[]> decodeBatch() {
+        return EmbeddingResponseDecoder.decode(batchBytes);
+    }
+}
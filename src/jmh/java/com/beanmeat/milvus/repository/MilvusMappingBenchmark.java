@@ -0,0 +1,98 @@
+package com.beanmeat.milvus.repository;
+
+import com.alibaba.fastjson2.JSONObject;
+import com.beanmeat.milvus.benchmark.SyntheticData;
+import com.beanmeat.milvus.dto.VectorSearchResult;
+import com.beanmeat.milvus.entity.VectorData;
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import io.milvus.v2.service.vector.response.SearchResp;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Milvus边界的数据转换：写入行构造与搜索结果映射
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MilvusMappingBenchmark {
+
+    @Param({"10", "100"})
+    private int topK;
+
+    @Param({"false", "true"})
+    private boolean includeVector;
+
+    private VectorData row;
+    private List<Float> rowVectorList;
+    private List<SearchResp.SearchResult> searchResults;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        row = VectorData.builder()
+                .id(1718000000000L)
+                .description(SyntheticData.description(0))
+                .segment(1)
+                .descriptionVector(SyntheticData.vector(random))
+                .build();
+        rowVectorList = SyntheticData.vectorList(random);
+
+        searchResults = new ArrayList<>(topK);
+        for (int i = 0; i < topK; i++) {
+            Map<String, Object> entity = new HashMap<>();
+            entity.put("description", SyntheticData.description(i));
+            entity.put("segment", 1L);
+            if (includeVector) {
+                entity.put("description_vector", SyntheticData.vectorList(random));
+            }
+            searchResults.add(SearchResp.SearchResult.builder()
+                    .id(1718000000000L + i)
+                    .score(1.0f - i * 0.001f)
+                    .entity(entity)
+                    .build());
+        }
+    }
+
+    /**
+     * 原实现：逐字段addProperty，向量经Gson.toJsonTree转换
+     */
+    @Benchmark
+    public JsonObject legacyRowConstruction() {
+        JsonObject jsonObject = new JsonObject();
+        jsonObject.addProperty("id", row.getId());
+        jsonObject.addProperty("description", row.getDescription());
+        jsonObject.addProperty("segment", row.getSegment());
+        jsonObject.add("description_vector", new Gson().toJsonTree(rowVectorList));
+        return jsonObject;
+    }
+
+    @Benchmark
+    public JsonObject rowConstruction() {
+        return MilvusRepository.toRow(row);
+    }
+
+    /**
+     * 原实现：JSONObject.from反射映射搜索结果
+     */
+    @Benchmark
+    public List<JSONObject> legacySearchMapping() {
+        List<JSONObject> ret = new ArrayList<>(searchResults.size());
+        for (SearchResp.SearchResult item : searchResults) {
+            ret.add(JSONObject.from(item));
+        }
+        return ret;
+    }
+
+    @Benchmark
+    public List<VectorSearchResult> searchMapping() {
+        List<VectorSearchResult> ret = new ArrayList<>(searchResults.size());
+        for (SearchResp.SearchResult item : searchResults) {
+            ret.add(MilvusRepository.toSearchResult(item));
+        }
+        return ret;
+    }
+}
@@ -0,0 +1,70 @@
+package com.beanmeat.milvus.config;
+
+import com.beanmeat.milvus.embedding.AdaptiveConcurrencyLimiter;
+import com.beanmeat.milvus.embedding.CachingEmbeddingClient;
+import com.beanmeat.milvus.embedding.CoalescingEmbeddingClient;
+import com.beanmeat.milvus.embedding.ConcurrencyLimitedEmbeddingClient;
+import com.beanmeat.milvus.embedding.EmbeddingCache;
+import com.beanmeat.milvus.embedding.EmbeddingClient;
+import com.beanmeat.milvus.embedding.EmbeddingMetrics;
+import com.beanmeat.milvus.embedding.MicroBatchingEmbeddingClient;
+import com.beanmeat.milvus.embedding.OllamaEmbeddingClient;
+import com.beanmeat.milvus.repository.HttpUtil;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 向量化客户端配置类
+ */
+@Slf4j
+@Configuration
+@RequiredArgsConstructor
+public class EmbeddingConfig {
+
+    private final EmbeddingProperties embeddingProperties;
+
+    private MicroBatchingEmbeddingClient microBatchingClient;
+
+    /**
+     * 创建向量化客户端Bean：缓存 -> 请求合并 -> 微批聚合 -> 并发限制 -> Ollama
+     */
+    @Bean
+    public EmbeddingClient embeddingClient(EmbeddingCache embeddingCache, HttpUtil httpUtil,
+                                           EmbeddingMetrics embeddingMetrics, MeterRegistry meterRegistry) {
+        EmbeddingClient client = decorate(new OllamaEmbeddingClient(embeddingProperties, httpUtil, embeddingMetrics),
+                meterRegistry);
+        client = new CachingEmbeddingClient(client, embeddingCache);
+        log.info("向量化客户端初始化完成: {}, 模型: {}", embeddingProperties.getUrl(), embeddingProperties.getModel());
+        return client;
+    }
+
+    /**
+     * 按配置在模型客户端之上装配并发限制、微批聚合和请求合并
+     * 并发限制位于微批聚合之下，模型服务的在途批次数由自适应上限约束
+     */
+    EmbeddingClient decorate(EmbeddingClient client, MeterRegistry meterRegistry) {
+        if (Boolean.TRUE.equals(embeddingProperties.getLimiter().getEnabled())) {
+            client = new ConcurrencyLimitedEmbeddingClient(client,
+                    new AdaptiveConcurrencyLimiter(embeddingProperties.getLimiter(), meterRegistry));
+        }
+        if (Boolean.TRUE.equals(embeddingProperties.getBatching().getEnabled())) {
+            microBatchingClient = new MicroBatchingEmbeddingClient(client, embeddingProperties.getBatching(), meterRegistry);
+            client = microBatchingClient;
+        }
+        if (Boolean.TRUE.equals(embeddingProperties.getCoalescing())) {
+            client = new CoalescingEmbeddingClient(client, meterRegistry);
+        }
+        return client;
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (microBatchingClient != null) {
+            microBatchingClient.close();
+        }
+    }
+}
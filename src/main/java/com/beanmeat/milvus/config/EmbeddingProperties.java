@@ -0,0 +1,216 @@
+package com.beanmeat.milvus.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 向量模型配置属性类
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "embedding")
+public class EmbeddingProperties {
+
+    /**
+     * 向量模型服务地址（Ollama）
+     */
+    private String url;
+
+    /**
+     * 向量模型名称
+     */
+    private String model = "bge-m3";
+
+    /**
+     * 单次请求最大文本数，超出自动切分
+     */
+    private Integer maxBatchSize = 64;
+
+    /**
+     * 单次向量化请求超时
+     */
+    private Duration timeout = Duration.ofSeconds(30);
+
+    /**
+     * 向量缓存配置
+     */
+    private Cache cache = new Cache();
+
+    /**
+     * 微批聚合配置
+     */
+    private Batching batching = new Batching();
+
+    /**
+     * 是否合并并发的相同文本向量化请求，共享一次模型调用
+     */
+    private Boolean coalescing = true;
+
+    /**
+     * 自适应并发限制配置
+     */
+    private Limiter limiter = new Limiter();
+
+    /**
+     * 桩向量服务配置
+     */
+    private Stub stub = new Stub();
+
+    @Data
+    public static class Cache {
+        /**
+         * 是否启用向量缓存
+         */
+        private Boolean enabled = true;
+
+        /**
+         * 内存缓存最大条目数
+         */
+        private Long maximumSize = 100000L;
+
+        /**
+         * 缓存过期时间
+         */
+        private Duration ttl = Duration.ofDays(1);
+
+        /**
+         * 磁盘缓存配置
+         */
+        private Disk disk = new Disk();
+    }
+
+    @Data
+    public static class Disk {
+        /**
+         * 是否启用磁盘缓存
+         */
+        private Boolean enabled = false;
+
+        /**
+         * 磁盘缓存文件路径
+         */
+        private String path = "./data/embedding-cache.bin";
+
+        /**
+         * 磁盘缓存文件大小上限（MB），写满后整体淘汰
+         */
+        private Integer maxSizeMb = 512;
+    }
+
+    @Data
+    public static class Batching {
+        /**
+         * 是否启用微批聚合
+         */
+        private Boolean enabled = true;
+
+        /**
+         * 聚合等待时间，单条请求的额外延迟不超过该值
+         */
+        private Duration linger = Duration.ofMillis(5);
+
+        /**
+         * 单批最大文本数
+         */
+        private Integer maxBatchSize = 32;
+
+        /**
+         * 等待队列容量
+         */
+        private Integer queueCapacity = 1024;
+
+        /**
+         * 队列满时的处理策略
+         */
+        private OverflowPolicy overflowPolicy = OverflowPolicy.REJECT;
+
+        /**
+         * BLOCK策略下的最长等待时间
+         */
+        private Duration blockTimeout = Duration.ofSeconds(1);
+    }
+
+    @Data
+    public static class Limiter {
+        /**
+         * 是否限制对向量模型服务的并发调用
+         */
+        private Boolean enabled = true;
+
+        /**
+         * 初始并发上限
+         */
+        private Integer initialLimit = 8;
+
+        /**
+         * 并发上限下界
+         */
+        private Integer minLimit = 1;
+
+        /**
+         * 并发上限上界
+         */
+        private Integer maxLimit = 64;
+
+        /**
+         * 单次调用耗时超过该值视为模型服务过载，按backoff-ratio降低上限
+         */
+        private Duration latencyThreshold = Duration.ofSeconds(2);
+
+        /**
+         * 过载时上限的乘性下降系数
+         */
+        private Double backoffRatio = 0.9;
+
+        /**
+         * 等待许可的最大调用数，超出立即拒绝
+         */
+        private Integer maxQueue = 256;
+
+        /**
+         * 等待许可的最长时间，超时拒绝
+         */
+        private Duration maxWait = Duration.ofMillis(500);
+
+        /**
+         * 拒绝时建议客户端的重试等待时间（Retry-After）
+         */
+        private Duration retryAfter = Duration.ofSeconds(1);
+    }
+
+    @Data
+    public static class Stub {
+        /**
+         * 是否启用桩向量服务（/stub/ollama/api/embed），用于离线压测
+         */
+        private Boolean enabled = false;
+
+        /**
+         * 返回的向量维度
+         */
+        private Integer dimension = 1024;
+
+        /**
+         * 每次请求的模拟延迟
+         */
+        private Duration latency = Duration.ZERO;
+    }
+
+    /**
+     * 队列满时的处理策略
+     */
+    public enum OverflowPolicy {
+        /**
+         * 立即拒绝
+         */
+        REJECT,
+
+        /**
+         * 阻塞等待，超时后拒绝
+         */
+        BLOCK
+    }
+}
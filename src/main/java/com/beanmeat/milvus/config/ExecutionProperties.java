@@ -0,0 +1,59 @@
+package com.beanmeat.milvus.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 线程执行模型配置属性类
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "execution")
+public class ExecutionProperties {
+
+    /**
+     * 服务内并行任务（分段搜索、批量预取、更新时的查询与向量化）、MVC异步处理及OkHttp异步调用使用的线程类型
+     */
+    private ThreadType threadType = ThreadType.VIRTUAL;
+
+    /**
+     * 使用平台线程时的线程池大小
+     */
+    private Integer platformThreads = 32;
+
+    /**
+     * 虚拟线程钉住（pinning）诊断配置
+     */
+    private Pinning pinning = new Pinning();
+
+    @Data
+    public static class Pinning {
+        /**
+         * 是否通过JFR事件 jdk.VirtualThreadPinned 监控虚拟线程被钉住在载体线程上的情况
+         */
+        private Boolean enabled = false;
+
+        /**
+         * 钉住时长超过该值才记录
+         */
+        private Duration threshold = Duration.ofMillis(20);
+    }
+
+    /**
+     * 线程类型
+     */
+    public enum ThreadType {
+        /**
+         * 每个任务一个虚拟线程
+         */
+        VIRTUAL,
+
+        /**
+         * 固定大小的平台线程池
+         */
+        PLATFORM
+    }
+}
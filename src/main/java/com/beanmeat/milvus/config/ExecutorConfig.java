@@ -0,0 +1,89 @@
+package com.beanmeat.milvus.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.task.ThreadPoolTaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 线程池配置类
+ *
+ * 请求处理线程由 spring.threads.virtual.enabled 控制；
+ * 服务内并行任务、Spring MVC异步处理和OkHttp异步调用按 execution.thread-type 选择虚拟线程或平台线程池。
+ * 定义了Executor类型的Bean后Spring Boot不再创建 applicationTaskExecutor，
+ * MVC异步处理（流式导出、/api/v2 的Mono/Flux）改由 {@link #mvcTaskExecutor} 执行，见 {@link WebConfig}。
+ */
+@Slf4j
+@Configuration
+@RequiredArgsConstructor
+public class ExecutorConfig {
+
+    private final ExecutionProperties executionProperties;
+    private final MilvusProperties milvusProperties;
+
+    /**
+     * 服务内并行任务线程池：分段并行搜索、批量操作的预取
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService serviceExecutor() {
+        ExecutorService executor = newVirtualThreadExecutor(executionProperties);
+        if (executor != null) {
+            log.info("服务内并行任务使用虚拟线程");
+            return executor;
+        }
+        int threads = executionProperties.getPlatformThreads();
+        log.info("服务内并行任务使用平台线程池, 线程数: {}", threads);
+        return Executors.newFixedThreadPool(threads, namedThreadFactory("service-"));
+    }
+
+    /**
+     * Spring MVC异步处理线程池：使用虚拟线程，或按 spring.task.execution.pool.* 配置的有界线程池
+     */
+    @Bean
+    public AsyncTaskExecutor mvcTaskExecutor(ThreadPoolTaskExecutorBuilder builder) {
+        ExecutorService executor = newVirtualThreadExecutor(executionProperties);
+        if (executor != null) {
+            log.info("MVC异步处理使用虚拟线程");
+            return new TaskExecutorAdapter(executor);
+        }
+        return builder.build();
+    }
+
+    /**
+     * 响应式接口执行Milvus阻塞调用的有界调度器
+     */
+    @Bean(destroyMethod = "dispose")
+    public Scheduler milvusScheduler() {
+        MilvusProperties.Reactive config = milvusProperties.getReactive();
+        return Schedulers.newBoundedElastic(config.getSchedulerThreads(), config.getQueuedTasks(), "milvus-reactive");
+    }
+
+    /**
+     * 按配置创建每任务一个虚拟线程的执行器；配置为平台线程时返回null
+     */
+    static ExecutorService newVirtualThreadExecutor(ExecutionProperties properties) {
+        if (properties.getThreadType() == ExecutionProperties.ThreadType.PLATFORM) {
+            return null;
+        }
+        return Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    private static ThreadFactory namedThreadFactory(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
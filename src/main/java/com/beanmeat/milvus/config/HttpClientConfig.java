@@ -0,0 +1,56 @@
+package com.beanmeat.milvus.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HTTP客户端配置类
+ */
+@Slf4j
+@Configuration
+@RequiredArgsConstructor
+public class HttpClientConfig {
+
+    private final HttpClientProperties httpClientProperties;
+    private final ExecutionProperties executionProperties;
+
+    /**
+     * 创建共享的OkHttpClient Bean，复用连接池和异步调度器
+     * 支持虚拟线程时异步调用在虚拟线程上执行，并发仍由 max-requests 限制
+     */
+    @Bean
+    public OkHttpClient okHttpClient() {
+        ExecutorService executor = ExecutorConfig.newVirtualThreadExecutor(executionProperties);
+        Dispatcher dispatcher = executor != null ? new Dispatcher(executor) : new Dispatcher();
+        dispatcher.setMaxRequests(httpClientProperties.getMaxRequests());
+        dispatcher.setMaxRequestsPerHost(httpClientProperties.getMaxRequestsPerHost());
+
+        OkHttpClient client = new OkHttpClient.Builder()
+                .connectionPool(new ConnectionPool(httpClientProperties.getMaxIdleConnections(),
+                        httpClientProperties.getKeepAlive().toMillis(), TimeUnit.MILLISECONDS))
+                .dispatcher(dispatcher)
+                .connectTimeout(httpClientProperties.getConnectTimeout())
+                .readTimeout(httpClientProperties.getReadTimeout())
+                .writeTimeout(httpClientProperties.getWriteTimeout())
+                .callTimeout(httpClientProperties.getCallTimeout())
+                .protocols(Boolean.TRUE.equals(httpClientProperties.getHttp2())
+                        ? Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1)
+                        : Collections.singletonList(Protocol.HTTP_1_1))
+                .build();
+
+        log.info("HTTP客户端初始化完成, 连接池: {}, 最大并发: {}, 虚拟线程: {}",
+                httpClientProperties.getMaxIdleConnections(), httpClientProperties.getMaxRequests(), executor != null);
+        return client;
+    }
+}
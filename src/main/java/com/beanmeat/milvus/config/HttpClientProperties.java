@@ -0,0 +1,61 @@
+package com.beanmeat.milvus.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * HTTP客户端配置属性类
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "http-client")
+public class HttpClientProperties {
+
+    /**
+     * 连接池最大空闲连接数
+     */
+    private Integer maxIdleConnections = 32;
+
+    /**
+     * 空闲连接保活时间
+     */
+    private Duration keepAlive = Duration.ofMinutes(5);
+
+    /**
+     * 建立连接超时
+     */
+    private Duration connectTimeout = Duration.ofSeconds(2);
+
+    /**
+     * 读超时
+     */
+    private Duration readTimeout = Duration.ofSeconds(30);
+
+    /**
+     * 写超时
+     */
+    private Duration writeTimeout = Duration.ofSeconds(10);
+
+    /**
+     * 整个调用的默认超时，0表示不限制
+     */
+    private Duration callTimeout = Duration.ofSeconds(60);
+
+    /**
+     * 异步调用的最大并发请求数
+     */
+    private Integer maxRequests = 128;
+
+    /**
+     * 异步调用对单个主机的最大并发请求数
+     */
+    private Integer maxRequestsPerHost = 64;
+
+    /**
+     * 是否启用HTTP/2（HTTPS下通过ALPN协商，不支持时回退HTTP/1.1）
+     */
+    private Boolean http2 = true;
+}
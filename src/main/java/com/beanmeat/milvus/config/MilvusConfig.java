@@ -4,6 +4,7 @@ import io.milvus.v2.client.ConnectConfig;
 import io.milvus.v2.client.MilvusClientV2;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -21,6 +22,7 @@ public class MilvusConfig {
      * 创建Milvus V2客户端Bean
      */
     @Bean
+    @ConditionalOnProperty(prefix = "milvus", name = "store-type", havingValue = "milvus", matchIfMissing = true)
     public MilvusClientV2 milvusClient() {
         try {
             ConnectConfig config = ConnectConfig.builder()
@@ -2,8 +2,13 @@ package com.beanmeat.milvus.config;
 
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import io.milvus.v2.common.ConsistencyLevel;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 /**
  * Milvus配置属性类
  */
@@ -16,12 +21,82 @@ public class MilvusProperties {
      * Milvus服务器URI
      */
     private String uri;
+
+    /**
+     * 向量存储类型：MILVUS（默认）或 MEMORY（进程内存储，用于离线压测）
+     */
+    private StoreType storeType = StoreType.MILVUS;
     
     /**
      * 集合配置
      */
     private Collection collection = new Collection();
+
+    /**
+     * 写入配置
+     */
+    private Insert insert = new Insert();
+
+    /**
+     * 主键生成配置
+     */
+    private Id id = new Id();
+
+    /**
+     * 异步写入（预写日志 + 后台批量写入）配置
+     */
+    private Ingest ingest = new Ingest();
+
+    /**
+     * 读取配置
+     */
+    private Read read = new Read();
+
+    /**
+     * 导出配置
+     */
+    private Export export = new Export();
+
+    /**
+     * 搜索结果缓存配置
+     */
+    private SearchCache searchCache = new SearchCache();
+
+    /**
+     * 搜索配置
+     */
+    private Search search = new Search();
+
+    /**
+     * 响应式接口（/api/v2）配置
+     */
+    private Reactive reactive = new Reactive();
+
+    /**
+     * 稠密+稀疏混合检索配置
+     */
+    private Hybrid hybrid = new Hybrid();
+
+    /**
+     * 指标配置
+     */
+    private Metrics metrics = new Metrics();
     
+    /**
+     * 向量存储类型
+     */
+    public enum StoreType {
+        /**
+         * Milvus服务
+         */
+        MILVUS,
+
+        /**
+         * 进程内暴力检索存储
+         */
+        MEMORY
+    }
+
     @Data
     public static class Collection {
         /**
@@ -39,11 +114,317 @@ public class MilvusProperties {
          */
         private String consistencyLevel;
         
+        /**
+         * 分区方式
+         */
+        private PartitionMode partitionMode = PartitionMode.PARTITION_KEY;
+
+        /**
+         * 分区键模式下的分区数
+         */
+        private Integer numPartitions = 64;
+
+        /**
+         * 显式分区模式下的分区名前缀，分区名为 前缀 + segment
+         */
+        private String partitionPrefix = "segment_";
+
         /**
          * 字段配置
          */
         private Fields fields = new Fields();
     }
+
+    /**
+     * segment分区方式
+     */
+    public enum PartitionMode {
+        /**
+         * 不分区，按过滤表达式扫描整个集合
+         */
+        NONE,
+
+        /**
+         * segment字段作为分区键，Milvus按过滤表达式自动裁剪分区
+         */
+        PARTITION_KEY,
+
+        /**
+         * 每个segment一个显式分区，读写时指定分区名
+         */
+        PARTITION
+    }
+    
+    @Data
+    public static class Insert {
+        /**
+         * 单次InsertReq最大行数
+         */
+        private Integer maxRows = 500;
+
+        /**
+         * 单次InsertReq最大字节数（估算值，需小于gRPC消息上限）
+         */
+        private Long maxBytes = 16L * 1024 * 1024;
+    }
+    
+    @Data
+    public static class Id {
+        /**
+         * 节点号（0-1023），多实例部署时每个实例必须不同；不配置时根据本机地址推导
+         */
+        private Integer nodeId;
+
+        /**
+         * 时间戳起点，41位毫秒时间戳可使用约69年
+         */
+        private String epoch = "2024-01-01T00:00:00Z";
+
+        /**
+         * 逻辑时间领先系统时间超过该值时告警（时钟回拨或持续超高写入）
+         */
+        private Duration clockBackwardWarn = Duration.ofSeconds(1);
+    }
+
+    @Data
+    public static class Ingest {
+        /**
+         * 是否启用异步写入：新增请求追加到预写日志后立即返回，由后台线程批量向量化并写入
+         */
+        private Boolean enabled = false;
+
+        /**
+         * 预写日志目录
+         */
+        private String walPath = "./data/wal";
+
+        /**
+         * 预写日志段文件大小（MB）
+         */
+        private Integer segmentSizeMb = 64;
+
+        /**
+         * 每次追加后是否强制刷盘；关闭时进程崩溃不丢数据，但操作系统崩溃可能丢失最近的记录
+         */
+        private Boolean syncOnAppend = false;
+
+        /**
+         * 内存待写入队列容量，满时拒绝新的写入
+         */
+        private Integer queueCapacity = 100000;
+
+        /**
+         * 单批最大行数，达到后立即写入
+         */
+        private Integer flushRows = 256;
+
+        /**
+         * 单批最长等待时间，到达后不足flushRows也写入
+         */
+        private Duration flushInterval = Duration.ofMillis(200);
+
+        /**
+         * 后台写入线程数
+         */
+        private Integer workers = 2;
+
+        /**
+         * 单行最大写入尝试次数，超过后转入死信日志，下次启动时重试
+         */
+        private Integer maxAttempts = 10;
+
+        /**
+         * 首次写入失败后的重试间隔，之后每次翻倍
+         */
+        private Duration retryBackoff = Duration.ofSeconds(1);
+
+        /**
+         * 重试间隔上限
+         */
+        private Duration maxRetryBackoff = Duration.ofMinutes(1);
+    }
+
+    @Data
+    public static class Export {
+        /**
+         * QueryIterator默认每页行数
+         */
+        private Integer pageSize = 1000;
+
+        /**
+         * 请求可指定的最大每页行数（Milvus单次查询上限16384）
+         */
+        private Integer maxPageSize = 16384;
+
+        /**
+         * 导出请求超时，0表示不限制；其他异步请求使用 spring.mvc.async.request-timeout
+         */
+        private Duration timeout = Duration.ZERO;
+    }
+
+    @Data
+    public static class Search {
+        /**
+         * 多段搜索默认策略
+         */
+        private MultiSegmentStrategy multiSegmentStrategy = MultiSegmentStrategy.IN_FILTER;
+
+        /**
+         * 是否合并并发的相同搜索（缓存键与一致性级别都相同），共享一次向量化和Milvus调用
+         */
+        private Boolean coalescing = true;
+    }
+
+    @Data
+    public static class Reactive {
+        /**
+         * 执行Milvus阻塞调用的有界调度器线程数上限
+         */
+        private Integer schedulerThreads = 64;
+
+        /**
+         * 调度器排队任务数上限，超出时拒绝
+         */
+        private Integer queuedTasks = 100000;
+    }
+
+    @Data
+    public static class Hybrid {
+        /**
+         * 是否启用稀疏向量字段，创建集合时生效
+         */
+        private Boolean enabled = false;
+
+        /**
+         * BM25分词器类型，中文使用chinese
+         */
+        private String analyzer = "chinese";
+
+        /**
+         * 未指定搜索模式时的默认模式
+         */
+        private SearchMode defaultMode = SearchMode.DENSE;
+
+        /**
+         * 重排策略
+         */
+        private RankerType ranker = RankerType.RRF;
+
+        /**
+         * RRF平滑参数k
+         */
+        private Integer rrfK = 60;
+
+        /**
+         * WEIGHTED重排时稠密向量权重
+         */
+        private Float denseWeight = 0.7f;
+
+        /**
+         * WEIGHTED重排时稀疏向量权重
+         */
+        private Float sparseWeight = 0.3f;
+
+        /**
+         * 稀疏检索时忽略的低权重词比例
+         */
+        private Double dropRatioSearch = 0.2;
+    }
+
+    /**
+     * 搜索模式
+     */
+    public enum SearchMode {
+        /**
+         * 仅稠密向量
+         */
+        DENSE,
+
+        /**
+         * 稠密向量 + 稀疏向量（BM25）混合检索
+         */
+        HYBRID
+    }
+
+    /**
+     * 混合检索重排策略
+     */
+    public enum RankerType {
+        /**
+         * 倒数排名融合
+         */
+        RRF,
+
+        /**
+         * 按权重加权融合
+         */
+        WEIGHTED
+    }
+
+    /**
+     * 多段搜索策略
+     */
+    public enum MultiSegmentStrategy {
+        /**
+         * 一次搜索，过滤条件 segment in [...]
+         */
+        IN_FILTER,
+
+        /**
+         * 每个段（分区）单独搜索并行执行，再合并topK
+         */
+        FAN_OUT
+    }
+
+    @Data
+    public static class SearchCache {
+        /**
+         * 是否启用搜索结果缓存
+         */
+        private Boolean enabled = true;
+
+        /**
+         * 最大缓存条目数
+         */
+        private Long maximumSize = 10000L;
+
+        /**
+         * 缓存过期时间
+         */
+        private Duration ttl = Duration.ofMinutes(10);
+
+        /**
+         * 写入后的稳定期，期间非STRONG读的结果不写缓存（应不小于Milvus的BOUNDED时延）
+         */
+        private Duration settleTime = Duration.ofSeconds(5);
+    }
+
+    @Data
+    public static class Metrics {
+        /**
+         * segment标签分桶数，segment按此取模，控制指标标签基数
+         */
+        private Integer segmentBuckets = 16;
+    }
+
+    @Data
+    public static class Read {
+        /**
+         * 读请求默认一致性级别
+         */
+        private ConsistencyLevel defaultConsistencyLevel = ConsistencyLevel.BOUNDED;
+
+        /**
+         * 客户端写入后的会话窗口，窗口内该客户端未指定级别的BOUNDED读升级为SESSION以保证读己之写，
+         * 显式指定的级别不做调整；应不小于Milvus的有界过期时间（默认5秒）
+         */
+        private Duration sessionWindow = Duration.ofSeconds(5);
+
+        /**
+         * 最多跟踪的客户端数
+         */
+        private Long maxTrackedClients = 100000L;
+    }
     
     @Data
     public static class Fields {
@@ -102,5 +483,15 @@ public class MilvusProperties {
          * 度量类型
          */
         private String metricType;
+
+        /**
+         * 索引构建参数，如 HNSW 的 M、efConstruction，IVF 的 nlist，IVF_PQ 的 m、nbits
+         */
+        private Map<String, Object> indexParams = new LinkedHashMap<>();
+
+        /**
+         * 默认搜索参数，如 HNSW 的 ef，IVF 的 nprobe，DISKANN 的 search_list，可被请求参数覆盖
+         */
+        private Map<String, Object> searchParams = new LinkedHashMap<>();
     }
 }
\ No newline at end of file
@@ -0,0 +1,79 @@
+package com.beanmeat.milvus.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 虚拟线程钉住诊断
+ *
+ * 虚拟线程在synchronized块内或本地方法中阻塞时无法让出载体线程（pinning），大量发生会使虚拟线程退化为平台线程。
+ * 订阅JFR事件 jdk.VirtualThreadPinned，记录 jvm.threads.virtual.pinned 计时器并输出钉住位置的栈顶，
+ * 用于定位OkHttp、Milvus SDK或业务代码中需要改为 ReentrantLock 的同步块。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class VirtualThreadPinningMonitor {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int LOGGED_FRAMES = 8;
+
+    private final ExecutionProperties executionProperties;
+    private final MeterRegistry meterRegistry;
+
+    private RecordingStream recordingStream;
+
+    @PostConstruct
+    public void init() {
+        ExecutionProperties.Pinning config = executionProperties.getPinning();
+        if (!Boolean.TRUE.equals(config.getEnabled())) {
+            return;
+        }
+        Timer pinned = Timer.builder("jvm.threads.virtual.pinned")
+                .description("虚拟线程被钉住在载体线程上的时长")
+                .register(meterRegistry);
+        try {
+            recordingStream = new RecordingStream();
+            recordingStream.enable(PINNED_EVENT).withThreshold(config.getThreshold()).withStackTrace();
+            recordingStream.onEvent(PINNED_EVENT, event -> {
+                pinned.record(event.getDuration());
+                log.warn("虚拟线程被钉住 {} ms, 线程: {}, 位置: {}", event.getDuration().toMillis(),
+                        event.getThread() != null ? event.getThread().getJavaName() : "-", topFrames(event));
+            });
+            recordingStream.startAsync();
+            log.info("虚拟线程钉住诊断已启动, 阈值: {}", config.getThreshold());
+        } catch (Exception e) {
+            log.warn("虚拟线程钉住诊断启动失败", e);
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (recordingStream != null) {
+            recordingStream.close();
+        }
+    }
+
+    private static String topFrames(RecordedEvent event) {
+        if (event.getStackTrace() == null) {
+            return "-";
+        }
+        List<RecordedFrame> frames = event.getStackTrace().getFrames();
+        return frames.stream()
+                .limit(LOGGED_FRAMES)
+                .map(frame -> frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                        + ":" + frame.getLineNumber())
+                .collect(Collectors.joining(" <- "));
+    }
+}
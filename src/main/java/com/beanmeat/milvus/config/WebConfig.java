@@ -1,6 +1,9 @@
 package com.beanmeat.milvus.config;
 
+import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
@@ -8,7 +11,18 @@ import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
  * Web配置类
  */
 @Configuration
+@RequiredArgsConstructor
 public class WebConfig implements WebMvcConfigurer {
+
+    private final AsyncTaskExecutor mvcTaskExecutor;
+
+    /**
+     * 异步请求使用有界线程池，避免回退到每任务新建线程的SimpleAsyncTaskExecutor
+     */
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(mvcTaskExecutor);
+    }
     
     /**
      * 配置跨域
@@ -0,0 +1,159 @@
+package com.beanmeat.milvus.controller;
+
+import com.beanmeat.milvus.dto.*;
+import com.beanmeat.milvus.entity.VectorData;
+import com.beanmeat.milvus.exception.OverloadedException;
+import com.beanmeat.milvus.service.ReactiveVectorDataService;
+import com.beanmeat.milvus.service.ReadConsistencyResolver;
+import io.milvus.v2.common.ConsistencyLevel;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+import static com.beanmeat.milvus.controller.VectorDataController.CLIENT_ID_HEADER;
+
+/**
+ * 向量数据响应式REST API控制器
+ *
+ * 返回Mono/Flux，由Spring MVC异步处理：等待向量化和Milvus调用期间不占用Tomcat线程。
+ * 以 application/x-ndjson 请求的接口逐条流式输出，流开始后发生的错误只能通过中断输出体现。
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/v2/vectors")
+@RequiredArgsConstructor
+@Tag(name = "向量数据管理（响应式）", description = "与 /api/v1/vectors 语义一致的非阻塞API")
+public class ReactiveVectorDataController {
+
+    private static final String NDJSON_MEDIA_TYPE = "application/x-ndjson";
+
+    private final ReactiveVectorDataService reactiveVectorDataService;
+    private final ReadConsistencyResolver readConsistencyResolver;
+
+    /**
+     * 创建向量数据
+     */
+    @PostMapping
+    @Operation(summary = "创建向量数据", description = "创建单个向量数据，返回分配的ID")
+    public Mono<ResponseEntity<ApiResponse<VectorDTO>>> createVectorData(
+            @Valid @RequestBody VectorDTO request,
+            @Parameter(description = "客户端标识，用于会话一致性") @RequestHeader(value = CLIENT_ID_HEADER, required = false) String clientId) {
+        return respond(reactiveVectorDataService.createVectorData(request)
+                .doOnSuccess(created -> readConsistencyResolver.recordWrite(clientId)), "创建向量数据失败");
+    }
+
+    /**
+     * 批量创建向量数据
+     */
+    @PostMapping("/batch")
+    @Operation(summary = "批量创建向量数据", description = "批量生成向量并分片写入，返回逐行结果")
+    public Mono<ResponseEntity<ApiResponse<BatchResponse>>> createVectorDataBatch(
+            @Valid @RequestBody List<VectorDTO> requests,
+            @Parameter(description = "客户端标识，用于会话一致性") @RequestHeader(value = CLIENT_ID_HEADER, required = false) String clientId) {
+        return respond(reactiveVectorDataService.createVectorDataBatch(requests)
+                .doOnSuccess(response -> readConsistencyResolver.recordWrite(clientId)), "批量创建向量数据失败");
+    }
+
+    /**
+     * 删除向量数据
+     */
+    @DeleteMapping("/{ids}")
+    @Operation(summary = "删除向量数据", description = "根据ID删除向量数据")
+    public Mono<ResponseEntity<ApiResponse<Void>>> deleteVectorData(
+            @Parameter(description = "向量数据ID") @PathVariable String ids,
+            @Parameter(description = "客户端标识，用于会话一致性") @RequestHeader(value = CLIENT_ID_HEADER, required = false) String clientId) {
+        return respond(reactiveVectorDataService.deleteVectorData(ids)
+                .doOnSuccess(ignored -> readConsistencyResolver.recordWrite(clientId)), "删除向量数据失败");
+    }
+
+    /**
+     * 更新向量数据
+     */
+    @PutMapping
+    @Operation(summary = "更新向量数据", description = "更新向量数据")
+    public Mono<ResponseEntity<ApiResponse<Void>>> updateVectorData(
+            @Valid @RequestBody VectorDTO request,
+            @Parameter(description = "客户端标识，用于会话一致性") @RequestHeader(value = CLIENT_ID_HEADER, required = false) String clientId) {
+        return respond(reactiveVectorDataService.updateVectorData(request)
+                .doOnSuccess(ignored -> readConsistencyResolver.recordWrite(clientId)), "更新向量数据失败");
+    }
+
+    /**
+     * 批量更新向量数据
+     */
+    @PutMapping("/batch")
+    @Operation(summary = "批量更新向量数据", description = "批量upsert，描述未变化的行复用已有向量，返回逐行结果")
+    public Mono<ResponseEntity<ApiResponse<BatchResponse>>> updateVectorDataBatch(
+            @Valid @RequestBody List<VectorDTO> requests,
+            @Parameter(description = "客户端标识，用于会话一致性") @RequestHeader(value = CLIENT_ID_HEADER, required = false) String clientId) {
+        return respond(reactiveVectorDataService.updateVectorDataBatch(requests)
+                .doOnSuccess(response -> readConsistencyResolver.recordWrite(clientId)), "批量更新向量数据失败");
+    }
+
+    /**
+     * 根据segment获取向量数据，以NDJSON逐行输出
+     */
+    @GetMapping(value = "/{segment}", produces = NDJSON_MEDIA_TYPE)
+    @Operation(summary = "获取向量数据", description = "根据segment获取向量数据，NDJSON流式输出")
+    public Flux<VectorData> getVectorDataBySegment(
+            @Parameter(description = "段") @PathVariable Long segment,
+            @Parameter(description = "一致性级别，不传使用默认配置") @RequestParam(required = false) ConsistencyLevel consistencyLevel,
+            @Parameter(description = "是否返回向量") @RequestParam(defaultValue = "false") boolean includeVector,
+            @Parameter(description = "客户端标识，用于会话一致性") @RequestHeader(value = CLIENT_ID_HEADER, required = false) String clientId) {
+        return reactiveVectorDataService.getVectorDataBySegment(segment,
+                        readConsistencyResolver.resolve(consistencyLevel, clientId), includeVector)
+                .doOnError(e -> log.error("获取向量数据失败, segment: {}", segment, e));
+    }
+
+    /**
+     * 向量相似度搜索
+     */
+    @PostMapping("/search")
+    @Operation(summary = "向量搜索", description = "基于向量相似度进行搜索")
+    public Mono<ResponseEntity<ApiResponse<List<VectorSearchResult>>>> searchVectorData(
+            @Valid @RequestBody VectorSearchRequest request,
+            @Parameter(description = "客户端标识，用于会话一致性") @RequestHeader(value = CLIENT_ID_HEADER, required = false) String clientId) {
+        request.setConsistencyLevel(readConsistencyResolver.resolve(request.getConsistencyLevel(), clientId));
+        return respond(reactiveVectorDataService.searchVectorData(request), "向量搜索失败");
+    }
+
+    /**
+     * 向量相似度搜索，结果以NDJSON逐条输出
+     */
+    @PostMapping(value = "/search/stream", produces = NDJSON_MEDIA_TYPE)
+    @Operation(summary = "向量搜索（流式）", description = "基于向量相似度进行搜索，结果按相似度顺序逐条输出")
+    public Flux<VectorSearchResult> searchVectorDataStream(
+            @Valid @RequestBody VectorSearchRequest request,
+            @Parameter(description = "客户端标识，用于会话一致性") @RequestHeader(value = CLIENT_ID_HEADER, required = false) String clientId) {
+        request.setConsistencyLevel(readConsistencyResolver.resolve(request.getConsistencyLevel(), clientId));
+        return reactiveVectorDataService.searchVectorDataStream(request)
+                .doOnError(e -> log.error("向量搜索失败", e));
+    }
+
+    /**
+     * 包装为统一响应：过载返回503，其余错误返回400
+     */
+    private static <T> Mono<ResponseEntity<ApiResponse<T>>> respond(Mono<T> result, String message) {
+        return result.map(ApiResponse::success)
+                .defaultIfEmpty(ApiResponse.success())
+                .map(ResponseEntity::ok)
+                .onErrorResume(e -> {
+                    OverloadedException overloaded = OverloadedException.find(e);
+                    if (overloaded != null) {
+                        return Mono.just(VectorDataController.overloaded(message, overloaded));
+                    }
+                    log.error(message, e);
+                    return Mono.just(ResponseEntity.badRequest()
+                            .body(ApiResponse.error(message + ": " + e.getMessage())));
+                });
+    }
+}
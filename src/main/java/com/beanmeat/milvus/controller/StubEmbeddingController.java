@@ -0,0 +1,89 @@
+package com.beanmeat.milvus.controller;
+
+import com.beanmeat.milvus.config.EmbeddingProperties;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * 桩向量服务，兼容Ollama的 /api/embed 与 /api/embeddings 接口
+ *
+ * 向量由文本摘要确定性生成并归一化，相同文本总是得到相同向量。
+ * 将 embedding.url 指向本服务即可在没有Ollama的环境下压测完整请求链路。
+ */
+@Slf4j
+@RestController
+@RequestMapping("/stub/ollama")
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "embedding.stub", name = "enabled", havingValue = "true")
+@Tag(name = "桩向量服务", description = "离线压测用的Ollama兼容向量接口")
+public class StubEmbeddingController {
+
+    private final EmbeddingProperties embeddingProperties;
+
+    /**
+     * 批量向量化，input为字符串或字符串数组
+     */
+    @PostMapping("/api/embed")
+    @Operation(summary = "批量向量化", description = "兼容Ollama /api/embed")
+    public Map<String, Object> embed(@RequestBody Map<String, Object> request) throws InterruptedException {
+        Object input = request.get("input");
+        List<String> texts = new ArrayList<>();
+        if (input instanceof Collection<?> collection) {
+            collection.forEach(text -> texts.add(String.valueOf(text)));
+        } else if (input != null) {
+            texts.add(String.valueOf(input));
+        }
+        simulateLatency();
+
+        List<float[]> embeddings = new ArrayList<>(texts.size());
+        for (String text : texts) {
+            embeddings.add(vector(text));
+        }
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("model", request.get("model"));
+        response.put("embeddings", embeddings);
+        return response;
+    }
+
+    /**
+     * 单条向量化
+     */
+    @PostMapping("/api/embeddings")
+    @Operation(summary = "单条向量化", description = "兼容Ollama /api/embeddings")
+    public Map<String, Object> embeddings(@RequestBody Map<String, Object> request) throws InterruptedException {
+        simulateLatency();
+        return Collections.singletonMap("embedding", vector(String.valueOf(request.get("prompt"))));
+    }
+
+    private void simulateLatency() throws InterruptedException {
+        long millis = embeddingProperties.getStub().getLatency().toMillis();
+        if (millis > 0) {
+            Thread.sleep(millis);
+        }
+    }
+
+    private float[] vector(String text) {
+        Random random = new Random(Arrays.hashCode(text.getBytes(StandardCharsets.UTF_8)) * 0x9E3779B97F4A7C15L);
+        float[] vector = new float[embeddingProperties.getStub().getDimension()];
+        double sum = 0;
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] = (float) random.nextGaussian();
+            sum += vector[i] * vector[i];
+        }
+        float norm = (float) Math.sqrt(sum);
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] /= norm;
+        }
+        return vector;
+    }
+}
@@ -1,17 +1,31 @@
 package com.beanmeat.milvus.controller;
 
-import com.alibaba.fastjson2.JSONObject;
 import com.beanmeat.milvus.dto.*;
+import com.beanmeat.milvus.entity.VectorData;
+import com.beanmeat.milvus.exception.OverloadedException;
+import com.beanmeat.milvus.service.ReadConsistencyResolver;
 import com.beanmeat.milvus.service.VectorDataService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.milvus.v2.common.ConsistencyLevel;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
 import java.util.List;
 
 /**
@@ -23,8 +37,20 @@ import java.util.List;
 @RequiredArgsConstructor
 @Tag(name = "向量数据管理", description = "向量数据的增删改查和搜索API")
 public class VectorDataController {
+
+    /**
+     * 客户端标识请求头，用于按客户端跟踪会话一致性
+     */
+    public static final String CLIENT_ID_HEADER = "X-Client-Id";
+
+    private static final String NDJSON_MEDIA_TYPE = "application/x-ndjson";
+
+    private static final Duration DEFAULT_RETRY_AFTER = Duration.ofSeconds(1);
     
     private final VectorDataService vectorDataService;
+    private final ReadConsistencyResolver readConsistencyResolver;
+    private final ObjectMapper objectMapper;
+    private final AsyncTaskExecutor mvcTaskExecutor;
     
     /**
      * 初始化集合
@@ -48,26 +74,57 @@ public class VectorDataController {
     @PostMapping
     @Operation(summary = "创建向量数据", description = "创建单个向量数据")
     public ResponseEntity<ApiResponse<VectorDTO>> createVectorData(
-            @Valid @RequestBody VectorDTO request) {
+            @Valid @RequestBody VectorDTO request,
+            @Parameter(description = "客户端标识，用于会话一致性") @RequestHeader(value = CLIENT_ID_HEADER, required = false) String clientId) {
         try {
-            vectorDataService.createVectorData(request);
-            return ResponseEntity.ok(ApiResponse.success());
+            VectorDTO created = vectorDataService.createVectorData(request);
+            readConsistencyResolver.recordWrite(clientId);
+            return ResponseEntity.ok(ApiResponse.success(created));
         } catch (Exception e) {
+            OverloadedException overloaded = OverloadedException.find(e);
+            if (overloaded != null) {
+                return overloaded("创建向量数据失败", overloaded);
+            }
             log.error("创建向量数据失败", e);
             return ResponseEntity.badRequest()
                     .body(ApiResponse.error("创建向量数据失败: " + e.getMessage()));
         }
     }
 
+    /**
+     * 批量创建向量数据
+     */
+    @PostMapping("/batch")
+    @Operation(summary = "批量创建向量数据", description = "批量生成向量并分片写入，返回逐行结果")
+    public ResponseEntity<ApiResponse<BatchResponse>> createVectorDataBatch(
+            @Valid @RequestBody List<VectorDTO> requests,
+            @Parameter(description = "客户端标识，用于会话一致性") @RequestHeader(value = CLIENT_ID_HEADER, required = false) String clientId) {
+        try {
+            BatchResponse response = vectorDataService.createVectorDataBatch(requests);
+            readConsistencyResolver.recordWrite(clientId);
+            return ResponseEntity.ok(ApiResponse.success(response));
+        } catch (Exception e) {
+            OverloadedException overloaded = OverloadedException.find(e);
+            if (overloaded != null) {
+                return overloaded("批量创建向量数据失败", overloaded);
+            }
+            log.error("批量创建向量数据失败", e);
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error("批量创建向量数据失败: " + e.getMessage()));
+        }
+    }
+
     /**
      * 删除向量数据
      */
     @DeleteMapping("/{ids}")
     @Operation(summary = "删除向量数据", description = "根据ID删除向量数据")
     public ResponseEntity<ApiResponse<Void>> deleteVectorData(
-            @Parameter(description = "向量数据ID") @PathVariable String ids) {
+            @Parameter(description = "向量数据ID") @PathVariable String ids,
+            @Parameter(description = "客户端标识，用于会话一致性") @RequestHeader(value = CLIENT_ID_HEADER, required = false) String clientId) {
         try {
             vectorDataService.deleteVectorData(ids);
+            readConsistencyResolver.recordWrite(clientId);
             return ResponseEntity.ok(ApiResponse.success());
         } catch (Exception e) {
             log.error("删除向量数据失败, ID: {}", ids, e);
@@ -82,26 +139,59 @@ public class VectorDataController {
     @PutMapping
     @Operation(summary = "更新向量数据", description = "更新向量数据")
     public ResponseEntity<ApiResponse<Void>> updateVectorData(
-            @Valid @RequestBody VectorDTO request) {
+            @Valid @RequestBody VectorDTO request,
+            @Parameter(description = "客户端标识，用于会话一致性") @RequestHeader(value = CLIENT_ID_HEADER, required = false) String clientId) {
         try {
             vectorDataService.updateVectorData(request);
+            readConsistencyResolver.recordWrite(clientId);
             return ResponseEntity.ok(ApiResponse.success());
         } catch (Exception e) {
+            OverloadedException overloaded = OverloadedException.find(e);
+            if (overloaded != null) {
+                return overloaded("更新向量数据失败", overloaded);
+            }
             log.error("更新向量数据失败, ID: {}", request.getId(), e);
             return ResponseEntity.badRequest()
                     .body(ApiResponse.error("更新向量数据失败: " + e.getMessage()));
         }
     }
 
+    /**
+     * 批量更新向量数据
+     */
+    @PutMapping("/batch")
+    @Operation(summary = "批量更新向量数据", description = "批量upsert，描述未变化的行复用已有向量，返回逐行结果")
+    public ResponseEntity<ApiResponse<BatchResponse>> updateVectorDataBatch(
+            @Valid @RequestBody List<VectorDTO> requests,
+            @Parameter(description = "客户端标识，用于会话一致性") @RequestHeader(value = CLIENT_ID_HEADER, required = false) String clientId) {
+        try {
+            BatchResponse response = vectorDataService.updateVectorDataBatch(requests);
+            readConsistencyResolver.recordWrite(clientId);
+            return ResponseEntity.ok(ApiResponse.success(response));
+        } catch (Exception e) {
+            OverloadedException overloaded = OverloadedException.find(e);
+            if (overloaded != null) {
+                return overloaded("批量更新向量数据失败", overloaded);
+            }
+            log.error("批量更新向量数据失败", e);
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error("批量更新向量数据失败: " + e.getMessage()));
+        }
+    }
+
     /**
      * 根据segment获取向量数据
      */
     @GetMapping("/{segment}")
     @Operation(summary = "获取向量数据", description = "根据ID获取向量数据")
-    public ResponseEntity<ApiResponse<List<JSONObject>>> getVectorDataBySegment(
-            @Parameter(description = "向量数据ID") @PathVariable Long segment) {
+    public ResponseEntity<ApiResponse<List<VectorData>>> getVectorDataBySegment(
+            @Parameter(description = "向量数据ID") @PathVariable Long segment,
+            @Parameter(description = "一致性级别，不传使用默认配置") @RequestParam(required = false) ConsistencyLevel consistencyLevel,
+            @Parameter(description = "是否返回向量") @RequestParam(defaultValue = "false") boolean includeVector,
+            @Parameter(description = "客户端标识，用于会话一致性") @RequestHeader(value = CLIENT_ID_HEADER, required = false) String clientId) {
         try {
-            List<JSONObject> response = vectorDataService.getVectorDataBySegment(segment);
+            List<VectorData> response = vectorDataService.getVectorDataBySegment(segment,
+                    readConsistencyResolver.resolve(consistencyLevel, clientId), includeVector);
             return ResponseEntity.ok(ApiResponse.success(response));
         } catch (Exception e) {
             log.error("获取向量数据失败, ID: {}", segment, e);
@@ -110,21 +200,126 @@ public class VectorDataController {
         }
     }
 
+    /**
+     * 按segment流式导出向量数据（NDJSON）
+     * 每行一个JSON对象，按id升序；中断后以最后收到的id作为afterId续传。
+     * 导出耗时与段大小成正比，超时单独由 milvus.export.timeout 控制，不受全局异步请求超时限制
+     */
+    @GetMapping("/{segment}/export")
+    @Operation(summary = "导出向量数据", description = "基于QueryIterator分页读取，以NDJSON流式输出，支持id游标续传")
+    public ResponseEntity<ResponseBodyEmitter> exportVectorDataBySegment(
+            @Parameter(description = "段") @PathVariable Long segment,
+            @Parameter(description = "续传游标，只返回id大于该值的数据") @RequestParam(required = false) Long afterId,
+            @Parameter(description = "每页行数，不传使用默认配置") @RequestParam(required = false) Integer pageSize,
+            @Parameter(description = "一致性级别，不传使用默认配置") @RequestParam(required = false) ConsistencyLevel consistencyLevel,
+            @Parameter(description = "是否返回向量") @RequestParam(defaultValue = "false") boolean includeVector,
+            @Parameter(description = "客户端标识，用于会话一致性") @RequestHeader(value = CLIENT_ID_HEADER, required = false) String clientId)
+            throws IOException {
+        int size;
+        try {
+            size = vectorDataService.resolveExportPageSize(pageSize);
+        } catch (Exception e) {
+            ResponseBodyEmitter error = new ResponseBodyEmitter();
+            error.send(ApiResponse.error("导出向量数据失败: " + e.getMessage()), MediaType.APPLICATION_JSON);
+            error.complete();
+            return ResponseEntity.badRequest()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(error);
+        }
+        ConsistencyLevel level = readConsistencyResolver.resolve(consistencyLevel, clientId);
+        MediaType ndjson = MediaType.parseMediaType(NDJSON_MEDIA_TYPE);
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(vectorDataService.resolveExportTimeout());
+        mvcTaskExecutor.execute(() -> {
+            try {
+                vectorDataService.exportVectorDataBySegment(segment, afterId, level, includeVector, size, page -> {
+                    try {
+                        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+                        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(buffer)) {
+                            generator.setRootValueSeparator(null);
+                            for (VectorData row : page) {
+                                generator.writeObject(row);
+                                generator.writeRaw('\n');
+                            }
+                        }
+                        emitter.send(buffer.toByteArray(), ndjson);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                emitter.complete();
+            } catch (Exception e) {
+                log.error("导出向量数据失败, segment: {}", segment, e);
+                emitter.completeWithError(e);
+            }
+        });
+        return ResponseEntity.ok()
+                .contentType(ndjson)
+                .body(emitter);
+    }
+
     /**
      * 向量相似度搜索
      */
     @PostMapping("/search")
     @Operation(summary = "向量搜索", description = "基于向量相似度进行搜索")
-    public ResponseEntity<ApiResponse<List<JSONObject>>> searchVectorData(
-            @Valid @RequestBody VectorSearchRequest request) {
+    public ResponseEntity<ApiResponse<List<VectorSearchResult>>> searchVectorData(
+            @Valid @RequestBody VectorSearchRequest request,
+            @Parameter(description = "客户端标识，用于会话一致性") @RequestHeader(value = CLIENT_ID_HEADER, required = false) String clientId) {
         try {
-            List<JSONObject> responses = vectorDataService.searchVectorData(request);
+            request.setConsistencyLevel(readConsistencyResolver.resolve(request.getConsistencyLevel(), clientId));
+            List<VectorSearchResult> responses = vectorDataService.searchVectorData(request);
             return ResponseEntity.ok(ApiResponse.success(responses));
         } catch (Exception e) {
+            OverloadedException overloaded = OverloadedException.find(e);
+            if (overloaded != null) {
+                return overloaded("向量搜索失败", overloaded);
+            }
             log.error("向量搜索失败", e);
             return ResponseEntity.badRequest()
                     .body(ApiResponse.error("向量搜索失败: " + e.getMessage()));
         }
     }
 
+    /**
+     * 查看异步写入死信
+     */
+    @GetMapping("/ingest/dead-letters")
+    @Operation(summary = "查看异步写入死信", description = "超过最大尝试次数仍未写入的行，保留在死信日志中直到重新写入")
+    public ResponseEntity<ApiResponse<List<VectorDTO>>> listDeadLetters(
+            @Parameter(description = "最多返回的行数") @RequestParam(defaultValue = "100") int limit) {
+        try {
+            return ResponseEntity.ok(ApiResponse.success(vectorDataService.listDeadLetters(limit)));
+        } catch (Exception e) {
+            log.error("查看异步写入死信失败", e);
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error("查看异步写入死信失败: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * 重新写入异步写入死信
+     */
+    @PostMapping("/ingest/dead-letters/replay")
+    @Operation(summary = "重新写入异步写入死信", description = "把死信日志中的全部行重新交给异步写入，返回行数")
+    public ResponseEntity<ApiResponse<Integer>> replayDeadLetters() {
+        try {
+            return ResponseEntity.ok(ApiResponse.success(vectorDataService.replayDeadLetters()));
+        } catch (Exception e) {
+            log.error("重新写入异步写入死信失败", e);
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error("重新写入异步写入死信失败: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * 过载响应：503并通过Retry-After告知客户端重试等待时间（秒）
+     */
+    static <T> ResponseEntity<ApiResponse<T>> overloaded(String message, OverloadedException e) {
+        log.warn("{}, 服务过载: {}", message, e.getMessage());
+        Duration retryAfter = e.getRetryAfter() != null ? e.getRetryAfter() : DEFAULT_RETRY_AFTER;
+        long seconds = Math.max(1, (retryAfter.toMillis() + 999) / 1000);
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(seconds))
+                .body(ApiResponse.error(HttpStatus.SERVICE_UNAVAILABLE.value(), message + ": " + e.getMessage()));
+    }
 }
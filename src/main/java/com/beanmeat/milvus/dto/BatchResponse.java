@@ -0,0 +1,45 @@
+package com.beanmeat.milvus.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 批量操作响应DTO
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "批量操作响应")
+public class BatchResponse {
+
+    @Schema(description = "总行数")
+    private Integer total;
+
+    @Schema(description = "成功行数")
+    private Integer succeeded;
+
+    @Schema(description = "失败行数")
+    private Integer failed;
+
+    @Schema(description = "逐行结果")
+    private List<BatchRowStatus> rows;
+
+    /**
+     * 根据逐行结果汇总
+     */
+    public static BatchResponse of(List<BatchRowStatus> rows) {
+        int succeeded = (int) rows.stream().filter(row -> Boolean.TRUE.equals(row.getSuccess())).count();
+        return BatchResponse.builder()
+                .total(rows.size())
+                .succeeded(succeeded)
+                .failed(rows.size() - succeeded)
+                .rows(rows)
+                .build();
+    }
+}
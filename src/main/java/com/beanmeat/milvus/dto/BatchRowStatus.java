@@ -0,0 +1,33 @@
+package com.beanmeat.milvus.dto;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 批量操作单行结果DTO
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "批量操作单行结果")
+public class BatchRowStatus {
+
+    @Schema(description = "请求中的行序号", example = "0")
+    private Integer index;
+
+    @Schema(description = "ID，64位整数，以字符串输出避免JavaScript精度丢失", type = "string")
+    @JsonSerialize(using = ToStringSerializer.class)
+    private Long id;
+
+    @Schema(description = "是否成功")
+    private Boolean success;
+
+    @Schema(description = "失败原因")
+    private String message;
+}
@@ -1,5 +1,7 @@
 package com.beanmeat.milvus.dto;
 
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -19,7 +21,8 @@ import java.util.List;
 @Schema(description = "向量数据DTO")
 public class VectorDTO {
 
-    @Schema(description = "ID")
+    @Schema(description = "ID，64位整数，以字符串输出避免JavaScript精度丢失", type = "string")
+    @JsonSerialize(using = ToStringSerializer.class)
     private Long id;
     
     @Schema(description = "描述")
@@ -1,5 +1,7 @@
 package com.beanmeat.milvus.dto;
 
+import com.beanmeat.milvus.config.MilvusProperties;
+import io.milvus.v2.common.ConsistencyLevel;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -10,7 +12,12 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Size;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
 
 /**
  * 向量搜索请求DTO
@@ -33,4 +40,69 @@ public class VectorSearchRequest {
 
     @Schema(description = "段")
     private Integer segment;
+
+    @Size(max = 256, message = "segments不能超过256个")
+    @Schema(description = "多个段，与segment合并；都不传时搜索全部段")
+    private List<Integer> segments;
+
+    @Schema(description = "多段搜索策略：IN_FILTER / FAN_OUT，不传使用默认配置")
+    private MilvusProperties.MultiSegmentStrategy segmentStrategy;
+
+    @Min(value = 1, message = "ef必须大于0")
+    @Schema(description = "HNSW搜索参数ef，越大召回越高、延迟越高", example = "64")
+    private Integer ef;
+
+    @Min(value = 1, message = "nprobe必须大于0")
+    @Schema(description = "IVF系列索引搜索参数nprobe", example = "16")
+    private Integer nprobe;
+
+    @Min(value = 1, message = "searchList必须大于0")
+    @Schema(description = "DISKANN搜索参数search_list", example = "100")
+    private Integer searchList;
+
+    @Schema(description = "返回字段，可选 description、segment，不传返回全部标量字段")
+    private List<String> outputFields;
+
+    @Schema(description = "是否返回向量", example = "false")
+    private Boolean includeVector;
+
+    @Schema(description = "搜索模式：DENSE / HYBRID（稠密+稀疏BM25），不传使用默认配置")
+    private MilvusProperties.SearchMode searchMode;
+
+    @Schema(description = "混合检索重排策略：RRF / WEIGHTED，不传使用默认配置")
+    private MilvusProperties.RankerType ranker;
+
+    @Schema(description = "一致性级别：STRONG / BOUNDED / SESSION / EVENTUALLY，不传使用默认配置")
+    private ConsistencyLevel consistencyLevel;
+
+    /**
+     * 合并segment与segments，去重排序；都未指定时返回null，表示搜索全部段
+     */
+    public List<Integer> resolveSegments() {
+        TreeSet<Integer> resolved = new TreeSet<>();
+        if (segment != null) {
+            resolved.add(segment);
+        }
+        if (segments != null) {
+            segments.stream().filter(Objects::nonNull).forEach(resolved::add);
+        }
+        return resolved.isEmpty() ? null : List.copyOf(resolved);
+    }
+
+    /**
+     * 请求中指定的搜索参数
+     */
+    public Map<String, Object> toSearchParams() {
+        Map<String, Object> params = new LinkedHashMap<>();
+        if (ef != null) {
+            params.put("ef", ef);
+        }
+        if (nprobe != null) {
+            params.put("nprobe", nprobe);
+        }
+        if (searchList != null) {
+            params.put("search_list", searchList);
+        }
+        return params;
+    }
 }
@@ -0,0 +1,38 @@
+package com.beanmeat.milvus.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 向量搜索结果DTO
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "向量搜索结果")
+public class VectorSearchResult {
+
+    @Schema(description = "ID，64位整数，以字符串输出避免JavaScript精度丢失", type = "string")
+    @JsonSerialize(using = ToStringSerializer.class)
+    private Long id;
+
+    @Schema(description = "相似度得分")
+    private Float score;
+
+    @Schema(description = "描述")
+    private String description;
+
+    @Schema(description = "段")
+    private Integer segment;
+
+    @Schema(description = "向量，仅在includeVector为true时返回")
+    private float[] descriptionVector;
+}
@@ -0,0 +1,219 @@
+package com.beanmeat.milvus.embedding;
+
+import com.beanmeat.milvus.config.EmbeddingProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * AIMD自适应并发限制
+ *
+ * 每次调用完成后按观测结果调整并发上限：耗时不超过 latency-threshold 且成功时加性增长（每个上限窗口约加1），
+ * 超时、失败或耗时超过阈值时按 backoff-ratio 乘性下降。超过上限的调用按先后顺序进入有界等待队列，
+ * 由 {@link #release(long, boolean)} 依次放行；队列满或等待超过 max-wait 时以 {@link EmbeddingOverloadedException} 拒绝，
+ * 避免请求在模型服务端堆积。{@link #acquireAsync()} 不阻塞调用线程，{@link #acquire()} 阻塞等待同一个队列。
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private final EmbeddingProperties.Limiter config;
+    private final long latencyThresholdNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Deque<CompletableFuture<Long>> waiters = new ArrayDeque<>();
+    private final Counter rejected;
+
+    private double limit;
+    private int inflight;
+
+    public AdaptiveConcurrencyLimiter(EmbeddingProperties.Limiter config, MeterRegistry meterRegistry) {
+        this.config = config;
+        this.latencyThresholdNanos = config.getLatencyThreshold().toNanos();
+        this.limit = config.getInitialLimit();
+        Gauge.builder("embedding.limiter.limit", this, AdaptiveConcurrencyLimiter::limit)
+                .description("向量模型当前并发上限")
+                .register(meterRegistry);
+        Gauge.builder("embedding.limiter.inflight", this, AdaptiveConcurrencyLimiter::inflight)
+                .description("已获得许可的向量模型调用数")
+                .register(meterRegistry);
+        Gauge.builder("embedding.limiter.waiting", this, AdaptiveConcurrencyLimiter::waiting)
+                .description("等待许可的向量模型调用数")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("embedding.limiter.rejected")
+                .description("因超过并发上限被拒绝的调用数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 阻塞获取许可，超过上限时在有界队列中等待
+     * @return 调用开始时间，释放许可时传回
+     */
+    public long acquire() {
+        CompletableFuture<Long> permit = acquireAsync();
+        try {
+            return permit.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            abandon(permit);
+            throw new RuntimeException("等待向量模型并发许可被中断", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException("获取向量模型并发许可失败", e.getCause());
+        }
+    }
+
+    /**
+     * 不阻塞地获取许可：有空闲许可时返回已完成的future，否则排队，由释放许可的线程完成
+     * 取消返回的future即放弃排队；已获得许可后必须调用 {@link #release(long, boolean)}
+     * @return 以调用开始时间完成的future，被拒绝时以 {@link EmbeddingOverloadedException} 失败
+     */
+    public CompletableFuture<Long> acquireAsync() {
+        CompletableFuture<Long> permit = new CompletableFuture<>();
+        lock.lock();
+        try {
+            if (waiters.isEmpty() && inflight < (int) limit) {
+                inflight++;
+                permit.complete(System.nanoTime());
+                return permit;
+            }
+            if (waiters.size() >= config.getMaxQueue()) {
+                return CompletableFuture.failedFuture(reject("向量模型并发已达上限且等待队列已满, 上限: " + (int) limit));
+            }
+            waiters.addLast(permit);
+        } finally {
+            lock.unlock();
+        }
+        CompletableFuture.delayedExecutor(config.getMaxWait().toNanos(), TimeUnit.NANOSECONDS)
+                .execute(() -> expire(permit));
+        return permit;
+    }
+
+    /**
+     * 释放许可并根据本次调用结果调整上限，再按上限放行等待的调用
+     * @param startNanos 获取许可时返回的开始时间
+     * @param failed 调用是否失败（含超时）
+     */
+    public void release(long startNanos, boolean failed) {
+        boolean overloaded = failed || System.nanoTime() - startNanos > latencyThresholdNanos;
+        lock.lock();
+        try {
+            // 只有上限确实被用满时才增长，避免空闲期上限无限膨胀
+            boolean saturated = inflight >= (int) limit;
+            inflight--;
+            if (overloaded) {
+                limit = Math.max(config.getMinLimit(), limit * config.getBackoffRatio());
+            } else if (saturated) {
+                limit = Math.min(config.getMaxLimit(), limit + 1.0 / limit);
+            }
+        } finally {
+            lock.unlock();
+        }
+        grantWaiters();
+    }
+
+    /**
+     * 按当前上限依次放行队首的等待调用；在锁外完成future，避免在锁内执行调用方的后续操作
+     */
+    private void grantWaiters() {
+        while (true) {
+            CompletableFuture<Long> permit;
+            lock.lock();
+            try {
+                if (waiters.isEmpty() || inflight >= (int) limit) {
+                    return;
+                }
+                permit = waiters.pollFirst();
+                inflight++;
+            } finally {
+                lock.unlock();
+            }
+            if (!permit.complete(System.nanoTime())) {
+                // 等待方已取消，许可交给下一个
+                returnUnused();
+            }
+        }
+    }
+
+    /**
+     * 等待超过 max-wait 仍在队列中的调用被拒绝
+     */
+    private void expire(CompletableFuture<Long> permit) {
+        boolean queued;
+        lock.lock();
+        try {
+            queued = waiters.remove(permit);
+        } finally {
+            lock.unlock();
+        }
+        if (queued) {
+            permit.completeExceptionally(reject("等待向量模型并发许可超时, 上限: " + (int) limit()));
+        }
+    }
+
+    /**
+     * 放弃等待：仍在队列中时移出；已经获得许可时归还
+     */
+    private void abandon(CompletableFuture<Long> permit) {
+        lock.lock();
+        try {
+            waiters.remove(permit);
+        } finally {
+            lock.unlock();
+        }
+        if (!permit.cancel(false) && !permit.isCompletedExceptionally()) {
+            returnUnused();
+        }
+    }
+
+    /**
+     * 归还未使用的许可，不调整上限
+     */
+    private void returnUnused() {
+        lock.lock();
+        try {
+            inflight--;
+        } finally {
+            lock.unlock();
+        }
+        grantWaiters();
+    }
+
+    private EmbeddingOverloadedException reject(String message) {
+        rejected.increment();
+        return new EmbeddingOverloadedException(message, config.getRetryAfter());
+    }
+
+    private double limit() {
+        lock.lock();
+        try {
+            return limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private double inflight() {
+        lock.lock();
+        try {
+            return inflight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private double waiting() {
+        lock.lock();
+        try {
+            return waiters.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
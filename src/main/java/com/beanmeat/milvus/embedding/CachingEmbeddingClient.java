@@ -0,0 +1,91 @@
+package com.beanmeat.milvus.embedding;
+
+import lombok.RequiredArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 带向量缓存的向量化客户端，仅将缓存未命中的文本交给下游
+ */
+@RequiredArgsConstructor
+public class CachingEmbeddingClient implements EmbeddingClient {
+
+    private final EmbeddingClient delegate;
+    private final EmbeddingCache embeddingCache;
+
+    @Override
+    public float[] embed(String text) {
+        float[] vector = embeddingCache.get(text);
+        if (vector == null) {
+            vector = delegate.embed(text);
+            embeddingCache.put(text, vector);
+        }
+        return vector;
+    }
+
+    @Override
+    public List<float[]> embedAll(List<String> texts) {
+        Lookup lookup = lookup(texts);
+        if (lookup.missTexts.isEmpty()) {
+            return lookup.vectors;
+        }
+        return lookup.fill(delegate.embedAll(lookup.missTexts));
+    }
+
+    @Override
+    public CompletableFuture<float[]> embedAsync(String text) {
+        float[] vector = embeddingCache.get(text);
+        if (vector != null) {
+            return CompletableFuture.completedFuture(vector);
+        }
+        return delegate.embedAsync(text).thenApply(embedded -> {
+            embeddingCache.put(text, embedded);
+            return embedded;
+        });
+    }
+
+    @Override
+    public CompletableFuture<List<float[]>> embedAllAsync(List<String> texts) {
+        Lookup lookup = lookup(texts);
+        if (lookup.missTexts.isEmpty()) {
+            return CompletableFuture.completedFuture(lookup.vectors);
+        }
+        return delegate.embedAllAsync(lookup.missTexts).thenApply(lookup::fill);
+    }
+
+    private Lookup lookup(List<String> texts) {
+        Lookup lookup = new Lookup(texts.size());
+        for (int i = 0; i < texts.size(); i++) {
+            float[] cached = embeddingCache.get(texts.get(i));
+            lookup.vectors.add(cached);
+            if (cached == null) {
+                lookup.missIndexes.add(i);
+                lookup.missTexts.add(texts.get(i));
+            }
+        }
+        return lookup;
+    }
+
+    /**
+     * 一次批量查询缓存的结果，记录未命中文本的位置
+     */
+    private final class Lookup {
+        private final List<float[]> vectors;
+        private final List<Integer> missIndexes = new ArrayList<>();
+        private final List<String> missTexts = new ArrayList<>();
+
+        private Lookup(int size) {
+            this.vectors = new ArrayList<>(size);
+        }
+
+        private List<float[]> fill(List<float[]> embedded) {
+            for (int i = 0; i < missIndexes.size(); i++) {
+                embeddingCache.put(missTexts.get(i), embedded.get(i));
+                vectors.set(missIndexes.get(i), embedded.get(i));
+            }
+            return vectors;
+        }
+    }
+}
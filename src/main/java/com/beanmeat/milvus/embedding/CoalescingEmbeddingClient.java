@@ -0,0 +1,44 @@
+package com.beanmeat.milvus.embedding;
+
+import com.beanmeat.milvus.util.SingleFlight;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 合并并发相同文本的向量化客户端
+ *
+ * 同一文本的单条 embed 请求在途时，后到的请求不再访问下游，直接共享在途请求的结果；
+ * 热点查询突增时对模型服务只产生一次调用。批量请求 embedAll 不参与合并。
+ */
+public class CoalescingEmbeddingClient implements EmbeddingClient {
+
+    private final EmbeddingClient delegate;
+    private final SingleFlight<String, float[]> flights;
+
+    public CoalescingEmbeddingClient(EmbeddingClient delegate, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.flights = new SingleFlight<>("embedding", meterRegistry);
+    }
+
+    @Override
+    public float[] embed(String text) {
+        return flights.execute(text, () -> delegate.embed(text));
+    }
+
+    @Override
+    public CompletableFuture<float[]> embedAsync(String text) {
+        return flights.executeAsync(text, () -> delegate.embedAsync(text));
+    }
+
+    @Override
+    public List<float[]> embedAll(List<String> texts) {
+        return delegate.embedAll(texts);
+    }
+
+    @Override
+    public CompletableFuture<List<float[]>> embedAllAsync(List<String> texts) {
+        return delegate.embedAllAsync(texts);
+    }
+}
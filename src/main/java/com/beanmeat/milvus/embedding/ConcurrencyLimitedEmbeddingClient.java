@@ -0,0 +1,45 @@
+package com.beanmeat.milvus.embedding;
+
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 受自适应并发限制的向量化客户端，每次下游调用占用一个许可
+ * 同步调用在调用线程上等待许可，异步调用排队后立即返回
+ */
+@RequiredArgsConstructor
+public class ConcurrencyLimitedEmbeddingClient implements EmbeddingClient {
+
+    private final EmbeddingClient delegate;
+    private final AdaptiveConcurrencyLimiter limiter;
+
+    @Override
+    public List<float[]> embedAll(List<String> texts) {
+        long start = limiter.acquire();
+        boolean failed = true;
+        try {
+            List<float[]> vectors = delegate.embedAll(texts);
+            failed = false;
+            return vectors;
+        } finally {
+            limiter.release(start, failed);
+        }
+    }
+
+    @Override
+    public CompletableFuture<List<float[]>> embedAllAsync(List<String> texts) {
+        // 排队等待许可时不占用调用线程（微批聚合线程），由释放许可的线程发起下游调用
+        return limiter.acquireAsync().thenCompose(start -> {
+            CompletableFuture<List<float[]>> future;
+            try {
+                future = delegate.embedAllAsync(texts);
+            } catch (RuntimeException e) {
+                limiter.release(start, true);
+                return CompletableFuture.failedFuture(e);
+            }
+            return future.whenComplete((vectors, error) -> limiter.release(start, error != null));
+        });
+    }
+}
@@ -0,0 +1,193 @@
+package com.beanmeat.milvus.embedding;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 基于内存映射文件的向量磁盘缓存，进程重启后仍可命中
+ *
+ * 文件格式：64字节文件头（魔数、版本、写入位置、向量维度），之后为顺序追加的记录
+ * [keyHigh:long][keyLow:long][createdAt:long][dimension:int][float * dimension]。
+ * 启动时顺序扫描记录重建索引，文件头与配置的维度不一致或写入位置越界时整个文件作废重建，
+ * 扫描到维度不符或越界的记录时在该处截断。
+ *
+ * 淘汰策略：不做单条淘汰，文件写满后一次性清空所有条目从头写入（计入cache.evictions），
+ * 此后的查询回落到内存缓存或模型服务，命中率会短暂下降；容量应按常用文本量预留余量。
+ */
+@Slf4j
+public class DiskEmbeddingStore implements Closeable {
+
+    private static final int MAGIC = 0x424D4543;
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 64;
+    private static final int WRITE_POSITION_OFFSET = 8;
+    private static final int DIMENSION_OFFSET = 12;
+    private static final int RECORD_HEADER_SIZE = 8 + 8 + 8 + 4;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private final int dimension;
+    private final long ttlMillis;
+
+    private final Map<EmbeddingCacheKey, Integer> index = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private int writePosition;
+
+    private final LongAdder evictions = new LongAdder();
+
+    public DiskEmbeddingStore(Path path, long maxBytes, int dimension, Duration ttl) throws IOException {
+        if (dimension <= 0 || HEADER_SIZE + RECORD_HEADER_SIZE + dimension * 4L > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("向量维度不合法: " + dimension);
+        }
+        this.path = path;
+        this.capacity = (int) Math.min(Math.max(maxBytes, HEADER_SIZE * 2L), Integer.MAX_VALUE);
+        this.dimension = dimension;
+        this.ttlMillis = ttl.toMillis();
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        load();
+    }
+
+    /**
+     * 查询向量，未命中或已过期返回null
+     */
+    public float[] get(EmbeddingCacheKey key) {
+        lock.readLock().lock();
+        try {
+            Integer offset = index.get(key);
+            if (offset == null) {
+                return null;
+            }
+            long createdAt = buffer.getLong(offset + 16);
+            if (ttlMillis > 0 && System.currentTimeMillis() - createdAt > ttlMillis) {
+                return null;
+            }
+            int dimension = buffer.getInt(offset + 24);
+            float[] vector = new float[dimension];
+            int position = offset + RECORD_HEADER_SIZE;
+            for (int i = 0; i < dimension; i++) {
+                vector[i] = buffer.getFloat(position + i * 4);
+            }
+            return vector;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 写入向量
+     */
+    public void put(EmbeddingCacheKey key, float[] vector) {
+        int recordSize = RECORD_HEADER_SIZE + vector.length * 4;
+        if (vector.length != dimension || HEADER_SIZE + recordSize > capacity) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (writePosition + recordSize > capacity) {
+                log.info("磁盘向量缓存已写满，清空重建: {}", path);
+                evictions.add(index.size());
+                index.clear();
+                writePosition = HEADER_SIZE;
+            }
+            int offset = writePosition;
+            buffer.putLong(offset, key.getHigh());
+            buffer.putLong(offset + 8, key.getLow());
+            buffer.putLong(offset + 16, System.currentTimeMillis());
+            buffer.putInt(offset + 24, vector.length);
+            int position = offset + RECORD_HEADER_SIZE;
+            for (int i = 0; i < vector.length; i++) {
+                buffer.putFloat(position + i * 4, vector[i]);
+            }
+            writePosition = offset + recordSize;
+            buffer.putInt(WRITE_POSITION_OFFSET, writePosition);
+            index.put(key, offset);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return index.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.writeLock().lock();
+        try {
+            buffer.force();
+            channel.close();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 扫描已有记录重建索引，文件头不可信时作废整个文件
+     */
+    private void load() {
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            reset();
+            return;
+        }
+        int storedDimension = buffer.getInt(DIMENSION_OFFSET);
+        int end = buffer.getInt(WRITE_POSITION_OFFSET);
+        if (storedDimension != dimension || end < HEADER_SIZE || end > capacity) {
+            log.warn("磁盘向量缓存文件头与配置不符, 丢弃重建: {}, 文件维度: {}, 配置维度: {}, 写入位置: {}",
+                    path, storedDimension, dimension, end);
+            reset();
+            return;
+        }
+        int recordSize = RECORD_HEADER_SIZE + dimension * 4;
+        int offset = HEADER_SIZE;
+        while (end - offset >= recordSize) {
+            if (buffer.getInt(offset + 24) != dimension) {
+                log.warn("磁盘向量缓存记录损坏, 在偏移 {} 处截断: {}", offset, path);
+                break;
+            }
+            index.put(new EmbeddingCacheKey(buffer.getLong(offset), buffer.getLong(offset + 8)), offset);
+            offset += recordSize;
+        }
+        writePosition = offset;
+        buffer.putInt(WRITE_POSITION_OFFSET, writePosition);
+        log.info("磁盘向量缓存加载完成: {}, 条目数: {}", path, index.size());
+    }
+
+    /**
+     * 写入新文件头，丢弃已有记录
+     */
+    private void reset() {
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        buffer.putInt(DIMENSION_OFFSET, dimension);
+        writePosition = HEADER_SIZE;
+        buffer.putInt(WRITE_POSITION_OFFSET, writePosition);
+    }
+}
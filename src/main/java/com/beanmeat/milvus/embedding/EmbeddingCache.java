@@ -0,0 +1,126 @@
+package com.beanmeat.milvus.embedding;
+
+import com.beanmeat.milvus.config.EmbeddingProperties;
+import com.beanmeat.milvus.config.MilvusProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Paths;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 两级向量缓存：内存（Caffeine W-TinyLFU）+ 可选的内存映射磁盘缓存
+ *
+ * 缓存键为 (model, text) 的摘要，命中、未命中、淘汰次数通过Micrometer暴露。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EmbeddingCache {
+
+    private final EmbeddingProperties embeddingProperties;
+    private final MilvusProperties milvusProperties;
+    private final MeterRegistry meterRegistry;
+
+    private Cache<EmbeddingCacheKey, float[]> memoryCache;
+    private DiskEmbeddingStore diskStore;
+
+    private final LongAdder diskHits = new LongAdder();
+    private final LongAdder diskMisses = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        EmbeddingProperties.Cache config = embeddingProperties.getCache();
+        if (!Boolean.TRUE.equals(config.getEnabled())) {
+            log.info("向量缓存未启用");
+            return;
+        }
+
+        memoryCache = Caffeine.newBuilder()
+                .maximumSize(config.getMaximumSize())
+                .expireAfterWrite(config.getTtl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, memoryCache, "embedding", "tier", "memory");
+
+        EmbeddingProperties.Disk disk = config.getDisk();
+        if (Boolean.TRUE.equals(disk.getEnabled())) {
+            try {
+                diskStore = new DiskEmbeddingStore(Paths.get(disk.getPath()), disk.getMaxSizeMb() * 1024L * 1024L,
+                        milvusProperties.getCollection().getFields().getDescriptionVector().getDimension(),
+                        config.getTtl());
+                FunctionCounter.builder("cache.gets", diskHits, LongAdder::sum)
+                        .tags("cache", "embedding", "tier", "disk", "result", "hit")
+                        .register(meterRegistry);
+                FunctionCounter.builder("cache.gets", diskMisses, LongAdder::sum)
+                        .tags("cache", "embedding", "tier", "disk", "result", "miss")
+                        .register(meterRegistry);
+                FunctionCounter.builder("cache.evictions", diskStore, DiskEmbeddingStore::evictionCount)
+                        .tags("cache", "embedding", "tier", "disk")
+                        .register(meterRegistry);
+                Gauge.builder("cache.size", diskStore, DiskEmbeddingStore::size)
+                        .tags("cache", "embedding", "tier", "disk")
+                        .register(meterRegistry);
+            } catch (Exception e) {
+                log.error("磁盘向量缓存初始化失败, 仅使用内存缓存: {}", disk.getPath(), e);
+            }
+        }
+        log.info("向量缓存初始化完成, 内存上限: {}, 磁盘缓存: {}", config.getMaximumSize(), diskStore != null);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (diskStore != null) {
+            try {
+                diskStore.close();
+            } catch (Exception e) {
+                log.warn("关闭磁盘向量缓存失败", e);
+            }
+        }
+    }
+
+    /**
+     * 查询缓存，先查内存再查磁盘，磁盘命中后回填内存
+     */
+    public float[] get(String text) {
+        if (memoryCache == null) {
+            return null;
+        }
+        EmbeddingCacheKey key = EmbeddingCacheKey.of(embeddingProperties.getModel(), text);
+        float[] vector = memoryCache.getIfPresent(key);
+        if (vector != null || diskStore == null) {
+            return vector;
+        }
+        vector = diskStore.get(key);
+        if (vector == null) {
+            diskMisses.increment();
+            return null;
+        }
+        diskHits.increment();
+        memoryCache.put(key, vector);
+        return vector;
+    }
+
+    /**
+     * 写入缓存
+     */
+    public void put(String text, float[] vector) {
+        if (memoryCache == null || vector == null) {
+            return;
+        }
+        EmbeddingCacheKey key = EmbeddingCacheKey.of(embeddingProperties.getModel(), text);
+        memoryCache.put(key, vector);
+        if (diskStore != null) {
+            diskStore.put(key, vector);
+        }
+    }
+}
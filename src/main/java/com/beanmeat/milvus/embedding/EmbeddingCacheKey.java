@@ -0,0 +1,35 @@
+package com.beanmeat.milvus.embedding;
+
+import lombok.Value;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * 向量缓存键：(model, text) 的SHA-256摘要前128位
+ */
+@Value
+public class EmbeddingCacheKey {
+
+    long high;
+
+    long low;
+
+    /**
+     * 根据模型名称和文本计算缓存键
+     */
+    public static EmbeddingCacheKey of(String model, String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(model.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(text.getBytes(StandardCharsets.UTF_8));
+            ByteBuffer hash = ByteBuffer.wrap(digest.digest());
+            return new EmbeddingCacheKey(hash.getLong(), hash.getLong());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256不可用", e);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.beanmeat.milvus.embedding;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 文本向量化客户端
+ */
+public interface EmbeddingClient {
+
+    /**
+     * 单条文本向量化
+     */
+    default float[] embed(String text) {
+        return embedAll(Collections.singletonList(text)).get(0);
+    }
+
+    /**
+     * 批量文本向量化，返回结果与输入顺序一致
+     */
+    List<float[]> embedAll(List<String> texts);
+
+    /**
+     * 单条文本异步向量化
+     */
+    default CompletableFuture<float[]> embedAsync(String text) {
+        return embedAllAsync(Collections.singletonList(text)).thenApply(vectors -> vectors.get(0));
+    }
+
+    /**
+     * 批量文本异步向量化，默认在调用线程同步执行
+     */
+    default CompletableFuture<List<float[]>> embedAllAsync(List<String> texts) {
+        try {
+            return CompletableFuture.completedFuture(embedAll(texts));
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+}
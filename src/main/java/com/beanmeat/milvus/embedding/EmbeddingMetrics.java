@@ -0,0 +1,80 @@
+package com.beanmeat.milvus.embedding;
+
+import com.beanmeat.milvus.config.EmbeddingProperties;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 向量模型调用指标
+ *
+ * embedding.request：每次模型请求的耗时（含响应解析），按model、outcome打标签；
+ * embedding.batch.size：每次请求的文本数；embedding.request.payload：请求体字节数；
+ * embedding.requests.inflight：在途请求数。
+ */
+@Component
+@RequiredArgsConstructor
+public class EmbeddingMetrics {
+
+    private static final double[] PERCENTILES = {0.5, 0.95, 0.99};
+
+    private final EmbeddingProperties embeddingProperties;
+    private final MeterRegistry meterRegistry;
+
+    private final AtomicInteger inflight = new AtomicInteger();
+
+    private DistributionSummary batchSize;
+    private DistributionSummary payload;
+
+    @PostConstruct
+    public void init() {
+        String model = embeddingProperties.getModel();
+        batchSize = DistributionSummary.builder("embedding.batch.size")
+                .description("单次向量模型请求的文本数")
+                .tag("model", model)
+                .publishPercentiles(PERCENTILES)
+                .register(meterRegistry);
+        payload = DistributionSummary.builder("embedding.request.payload")
+                .description("向量模型请求体字节数")
+                .baseUnit("bytes")
+                .tag("model", model)
+                .publishPercentiles(PERCENTILES)
+                .register(meterRegistry);
+        Gauge.builder("embedding.requests.inflight", inflight, AtomicInteger::get)
+                .description("在途向量模型请求数")
+                .tag("model", model)
+                .register(meterRegistry);
+    }
+
+    /**
+     * 请求开始
+     * @param texts 本次请求的文本数
+     * @param payloadBytes 请求体字节数
+     */
+    public Timer.Sample start(int texts, long payloadBytes) {
+        batchSize.record(texts);
+        payload.record(payloadBytes);
+        inflight.incrementAndGet();
+        return Timer.start(meterRegistry);
+    }
+
+    /**
+     * 请求结束
+     * @param error 失败原因，成功时为null
+     */
+    public void stop(Timer.Sample sample, Throwable error) {
+        inflight.decrementAndGet();
+        sample.stop(Timer.builder("embedding.request")
+                .description("向量模型请求耗时")
+                .tags("model", embeddingProperties.getModel(), "outcome", error == null ? "success" : "error")
+                .publishPercentiles(PERCENTILES)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+}
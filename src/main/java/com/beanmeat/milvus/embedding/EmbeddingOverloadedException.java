@@ -0,0 +1,19 @@
+package com.beanmeat.milvus.embedding;
+
+import com.beanmeat.milvus.exception.OverloadedException;
+
+import java.time.Duration;
+
+/**
+ * 向量化请求过载异常：等待队列已满、等待超时或超过并发限制
+ */
+public class EmbeddingOverloadedException extends OverloadedException {
+
+    public EmbeddingOverloadedException(String message) {
+        super(message);
+    }
+
+    public EmbeddingOverloadedException(String message, Duration retryAfter) {
+        super(message, retryAfter);
+    }
+}
@@ -0,0 +1,92 @@
+package com.beanmeat.milvus.embedding;
+
+import com.alibaba.fastjson2.JSONReader;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 向量模型响应解码器
+ *
+ * 直接从响应流中单次扫描解析 embeddings（/api/embed）或 embedding（/api/embeddings）字段，
+ * 数值写入线程内复用的缓冲区后按实际维度拷贝为 float[]，不生成中间字符串和装箱对象，
+ * 其他字段直接跳过。
+ */
+public final class EmbeddingResponseDecoder {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private static final ThreadLocal<float[]> BUFFER = ThreadLocal.withInitial(() -> new float[INITIAL_CAPACITY]);
+
+    private EmbeddingResponseDecoder() {
+    }
+
+    /**
+     * 从响应流解码向量列表
+     */
+    public static List<float[]> decode(InputStream inputStream) {
+        try (JSONReader reader = JSONReader.of(inputStream, StandardCharsets.UTF_8)) {
+            return decode(reader);
+        }
+    }
+
+    /**
+     * 从响应字节解码向量列表
+     */
+    public static List<float[]> decode(byte[] bytes) {
+        try (JSONReader reader = JSONReader.of(bytes)) {
+            return decode(reader);
+        }
+    }
+
+    private static List<float[]> decode(JSONReader reader) {
+        List<float[]> vectors = null;
+        String error = null;
+        if (!reader.nextIfObjectStart()) {
+            throw new IllegalArgumentException("向量模型响应不是JSON对象");
+        }
+        while (!reader.nextIfObjectEnd()) {
+            String name = reader.readFieldName();
+            if ("embeddings".equals(name)) {
+                vectors = new ArrayList<>();
+                if (reader.nextIfArrayStart()) {
+                    while (!reader.nextIfArrayEnd()) {
+                        vectors.add(readVector(reader));
+                    }
+                } else {
+                    reader.skipValue();
+                }
+            } else if ("embedding".equals(name)) {
+                vectors = new ArrayList<>(1);
+                vectors.add(readVector(reader));
+            } else if ("error".equals(name)) {
+                error = reader.readString();
+            } else {
+                reader.skipValue();
+            }
+        }
+        if (vectors == null) {
+            throw new IllegalArgumentException("向量模型响应缺少embeddings字段" + (error != null ? ": " + error : ""));
+        }
+        return vectors;
+    }
+
+    private static float[] readVector(JSONReader reader) {
+        if (!reader.nextIfArrayStart()) {
+            throw new IllegalArgumentException("向量格式错误");
+        }
+        float[] buffer = BUFFER.get();
+        int size = 0;
+        while (!reader.nextIfArrayEnd()) {
+            if (size == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                BUFFER.set(buffer);
+            }
+            buffer[size++] = reader.readFloatValue();
+        }
+        return Arrays.copyOf(buffer, size);
+    }
+}
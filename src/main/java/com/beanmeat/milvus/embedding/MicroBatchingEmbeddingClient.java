@@ -0,0 +1,173 @@
+package com.beanmeat.milvus.embedding;
+
+import com.beanmeat.milvus.config.EmbeddingProperties;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+
+/**
+ * 微批向量化客户端
+ *
+ * 并发的单条 embed 请求进入有界队列，由后台线程按 max-batch-size 条或 linger 时间
+ * 聚合成一批交给下游 embedAllAsync，完成后各调用方拿到各自的向量。
+ * 聚合线程只负责发出批次，不等待下游完成；在途批次数由下游的自适应并发限制约束，
+ * 超出上限的批次在限制器中排队，不会阻塞后续请求的聚合。
+ * 队列满时按 overflow-policy 拒绝或阻塞等待。批量请求 embedAll 不经过队列。
+ */
+@Slf4j
+public class MicroBatchingEmbeddingClient implements EmbeddingClient, AutoCloseable {
+
+    private final EmbeddingClient delegate;
+    private final EmbeddingProperties.Batching config;
+    private final BlockingQueue<PendingEmbedding> queue;
+    private final Thread collector;
+    private final DistributionSummary batchSizes;
+    private volatile boolean running = true;
+
+    public MicroBatchingEmbeddingClient(EmbeddingClient delegate, EmbeddingProperties.Batching config,
+                                        MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.config = config;
+        this.queue = new ArrayBlockingQueue<>(config.getQueueCapacity());
+        this.batchSizes = DistributionSummary.builder("embedding.microbatch.size")
+                .description("微批聚合后的批大小")
+                .register(meterRegistry);
+        Gauge.builder("embedding.microbatch.queue", queue, BlockingQueue::size)
+                .description("等待聚合的向量化请求数")
+                .register(meterRegistry);
+        this.collector = new Thread(this::collect, "embedding-batch-collector");
+        this.collector.setDaemon(true);
+        this.collector.start();
+    }
+
+    @Override
+    public float[] embed(String text) {
+        try {
+            return embedAsync(text).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("等待向量化结果被中断", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException("向量化失败", e.getCause());
+        }
+    }
+
+    @Override
+    public CompletableFuture<float[]> embedAsync(String text) {
+        PendingEmbedding pending = new PendingEmbedding(text);
+        enqueue(pending);
+        return pending.future;
+    }
+
+    @Override
+    public List<float[]> embedAll(List<String> texts) {
+        return delegate.embedAll(texts);
+    }
+
+    @Override
+    public CompletableFuture<List<float[]>> embedAllAsync(List<String> texts) {
+        return delegate.embedAllAsync(texts);
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        collector.interrupt();
+        PendingEmbedding pending;
+        while ((pending = queue.poll()) != null) {
+            pending.future.completeExceptionally(new IllegalStateException("向量化客户端已关闭"));
+        }
+    }
+
+    private void enqueue(PendingEmbedding pending) {
+        if (!running) {
+            throw new IllegalStateException("向量化客户端已关闭");
+        }
+        boolean accepted;
+        if (config.getOverflowPolicy() == EmbeddingProperties.OverflowPolicy.BLOCK) {
+            try {
+                accepted = queue.offer(pending, config.getBlockTimeout().toMillis(), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("等待向量化队列被中断", e);
+            }
+        } else {
+            accepted = queue.offer(pending);
+        }
+        if (!accepted) {
+            throw new EmbeddingOverloadedException("向量化队列已满, 容量: " + config.getQueueCapacity());
+        }
+    }
+
+    /**
+     * 聚合循环：取到第一条请求后，在 linger 时间内继续收集直到达到批大小
+     */
+    private void collect() {
+        long lingerNanos = config.getLinger().toNanos();
+        int maxBatchSize = config.getMaxBatchSize();
+        while (running) {
+            try {
+                PendingEmbedding first = queue.take();
+                List<PendingEmbedding> batch = new ArrayList<>(maxBatchSize);
+                batch.add(first);
+                long deadline = System.nanoTime() + lingerNanos;
+                while (batch.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        queue.drainTo(batch, maxBatchSize - batch.size());
+                        break;
+                    }
+                    PendingEmbedding next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                dispatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void dispatch(List<PendingEmbedding> batch) {
+        batchSizes.record(batch.size());
+        CompletableFuture<List<float[]>> future;
+        try {
+            future = delegate.embedAllAsync(batch.stream()
+                    .map(pending -> pending.text)
+                    .collect(Collectors.toList()));
+        } catch (Exception e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        future.whenComplete((vectors, error) -> {
+            if (error != null) {
+                log.error("微批向量化失败, 批大小: {}", batch.size(), error);
+                batch.forEach(pending -> pending.future.completeExceptionally(error));
+                return;
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).future.complete(vectors.get(i));
+            }
+        });
+    }
+
+    private static final class PendingEmbedding {
+        private final String text;
+        private final CompletableFuture<float[]> future = new CompletableFuture<>();
+
+        private PendingEmbedding(String text) {
+            this.text = text;
+        }
+    }
+}
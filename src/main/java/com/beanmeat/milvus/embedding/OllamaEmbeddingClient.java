@@ -0,0 +1,98 @@
+package com.beanmeat.milvus.embedding;
+
+import com.alibaba.fastjson2.JSON;
+import com.beanmeat.milvus.config.EmbeddingProperties;
+import com.beanmeat.milvus.repository.HttpUtil;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.ResponseBody;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 基于Ollama /api/embed 的向量化客户端
+ * 输入按 embedding.max-batch-size 自动切分，每批一次请求
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class OllamaEmbeddingClient implements EmbeddingClient {
+
+    private final EmbeddingProperties embeddingProperties;
+    private final HttpUtil httpUtil;
+    private final EmbeddingMetrics embeddingMetrics;
+
+    @Override
+    public List<float[]> embedAll(List<String> texts) {
+        List<float[]> vectors = new ArrayList<>(texts.size());
+        int batchSize = embeddingProperties.getMaxBatchSize();
+        for (int start = 0; start < texts.size(); start += batchSize) {
+            List<String> batch = texts.subList(start, Math.min(start + batchSize, texts.size()));
+            String body = requestBody(batch);
+            Timer.Sample sample = embeddingMetrics.start(batch.size(), payloadBytes(body));
+            Throwable error = null;
+            try {
+                vectors.addAll(check(batch, httpUtil.postJson(endpoint(), body,
+                        embeddingProperties.getTimeout(), OllamaEmbeddingClient::decode)));
+            } catch (RuntimeException e) {
+                error = e;
+                throw e;
+            } finally {
+                embeddingMetrics.stop(sample, error);
+            }
+        }
+        return vectors;
+    }
+
+    @Override
+    public CompletableFuture<List<float[]>> embedAllAsync(List<String> texts) {
+        int batchSize = embeddingProperties.getMaxBatchSize();
+        List<CompletableFuture<List<float[]>>> futures = new ArrayList<>();
+        for (int start = 0; start < texts.size(); start += batchSize) {
+            List<String> batch = texts.subList(start, Math.min(start + batchSize, texts.size()));
+            String body = requestBody(batch);
+            Timer.Sample sample = embeddingMetrics.start(batch.size(), payloadBytes(body));
+            futures.add(httpUtil.postJsonAsync(endpoint(), body,
+                            embeddingProperties.getTimeout(), OllamaEmbeddingClient::decode)
+                    .thenApply(vectors -> check(batch, vectors))
+                    .whenComplete((vectors, error) -> embeddingMetrics.stop(sample, error)));
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]))
+                .thenApply(ignored -> {
+                    List<float[]> vectors = new ArrayList<>(texts.size());
+                    futures.forEach(future -> vectors.addAll(future.join()));
+                    return vectors;
+                });
+    }
+
+    private String endpoint() {
+        return embeddingProperties.getUrl() + "/api/embed";
+    }
+
+    private String requestBody(List<String> texts) {
+        HashMap<String, Object> param = new HashMap<>();
+        param.put("model", embeddingProperties.getModel());
+        param.put("input", texts);
+        return JSON.toJSONString(param);
+    }
+
+    private static long payloadBytes(String body) {
+        return body.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    private static List<float[]> decode(ResponseBody body) {
+        return EmbeddingResponseDecoder.decode(body.byteStream());
+    }
+
+    private static List<float[]> check(List<String> texts, List<float[]> vectors) {
+        if (vectors.size() != texts.size()) {
+            throw new RuntimeException("向量模型返回数量不匹配, 期望: " + texts.size() + ", 实际: " + vectors.size());
+        }
+        log.debug("向量化完成, 文本数: {}", texts.size());
+        return vectors;
+    }
+}
@@ -1,14 +1,13 @@
 package com.beanmeat.milvus.entity;
 
-import io.swagger.v3.oas.annotations.media.Schema;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.time.LocalDateTime;
-import java.util.List;
-
 /**
  * 向量数据实体类
  */
@@ -19,9 +18,10 @@ import java.util.List;
 public class VectorData {
 
     /**
-     * 主键ID
+     * 主键ID，以字符串输出：雪花ID超过2^53，JavaScript按数字解析会丢失精度
      */
-    private String id;
+    @JsonSerialize(using = ToStringSerializer.class)
+    private Long id;
 
     /**
      * 描述
@@ -34,7 +34,8 @@ public class VectorData {
     private Integer segment;
 
     /**
-     * 向量数据
+     * 向量数据，仅在Milvus边界转换为SDK的行格式或FloatVec；查询未请求向量时为空
      */
-    private List<Float> descriptionVector;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private float[] descriptionVector;
 }
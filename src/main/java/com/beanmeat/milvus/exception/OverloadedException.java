@@ -0,0 +1,39 @@
+package com.beanmeat.milvus.exception;
+
+import java.time.Duration;
+
+/**
+ * 过载异常：请求因下游或内部队列容量不足被拒绝，客户端应在 retryAfter 之后重试
+ */
+public class OverloadedException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public OverloadedException(String message) {
+        this(message, null);
+    }
+
+    public OverloadedException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * 建议的重试等待时间，可能为null
+     */
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    /**
+     * 在异常链中查找过载异常，没有时返回null
+     */
+    public static OverloadedException find(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof OverloadedException) {
+                return (OverloadedException) cause;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,472 @@
+package com.beanmeat.milvus.ingest;
+
+import com.beanmeat.milvus.config.MilvusProperties;
+import com.beanmeat.milvus.dto.BatchRowStatus;
+import com.beanmeat.milvus.dto.VectorDTO;
+import com.beanmeat.milvus.embedding.EmbeddingClient;
+import com.beanmeat.milvus.entity.VectorData;
+import com.beanmeat.milvus.repository.VectorStore;
+import com.beanmeat.milvus.service.SearchResultCache;
+import com.beanmeat.milvus.service.SnowflakeIdGenerator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * 异步写入缓冲（write-behind）
+ *
+ * 新增请求分配主键后追加到预写日志并立即返回，后台线程按 flush-rows 条或 flush-interval 时间
+ * 聚合成批，批量向量化后通过upsert写入向量库（主键在受理时已确定，重放时重复写入是幂等的）。
+ * 所有受理早于某序号的记录都写入成功后推进checkpoint；启动时重放checkpoint之后的记录。
+ * 写入失败的行从 retry-backoff 开始按指数退避重试（上限 max-retry-backoff），超过 max-attempts 次后
+ * 转入死信日志（wal-path/dead-letter，每次追加都刷盘）再推进checkpoint。死信记录跨重启保留，不会自动重试，
+ * 由运维通过 {@link #listDeadLetters(int)} 查看、排除问题后调用 {@link #replayDeadLetters()} 重新写入。
+ * 未写入向量库的记录始终保留在预写日志或死信日志中，不会因为向量库或模型服务短暂不可用而丢失。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class IngestBuffer {
+
+    private final MilvusProperties milvusProperties;
+    private final VectorStore vectorStore;
+    private final EmbeddingClient embeddingClient;
+    private final SearchResultCache searchResultCache;
+    private final SnowflakeIdGenerator idGenerator;
+    private final MeterRegistry meterRegistry;
+
+    private static final String DEAD_LETTER_DIR = "dead-letter";
+
+    private WriteAheadLog wal;
+    private WriteAheadLog deadLetters;
+    private BlockingQueue<PendingRow> queue;
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile boolean running;
+
+    /**
+     * 未写入向量库的记录：序号 -> 受理时间，用于推进checkpoint和计算写入延迟
+     */
+    private final ConcurrentSkipListMap<Long, Long> unflushed = new ConcurrentSkipListMap<>();
+
+    /**
+     * 追加日志、登记未写入记录和计算checkpoint必须互斥，否则checkpoint可能越过尚未登记的记录
+     */
+    private final ReentrantLock appendLock = new ReentrantLock();
+
+    /**
+     * 死信日志中待处理的记录数；重新写入死信时互斥，避免同一批死信被重复追加
+     */
+    private final AtomicLong deadLetterCount = new AtomicLong();
+    private final ReentrantLock deadLetterLock = new ReentrantLock();
+
+    private Timer flushTimer;
+    private Counter flushedRows;
+    private Counter deadLetteredRows;
+
+    @PostConstruct
+    public void init() throws IOException {
+        MilvusProperties.Ingest config = milvusProperties.getIngest();
+        if (!Boolean.TRUE.equals(config.getEnabled())) {
+            return;
+        }
+        long segmentSize = config.getSegmentSizeMb() * 1024L * 1024L;
+        wal = new WriteAheadLog(Paths.get(config.getWalPath()), segmentSize,
+                Boolean.TRUE.equals(config.getSyncOnAppend()));
+        deadLetters = new WriteAheadLog(Paths.get(config.getWalPath(), DEAD_LETTER_DIR), segmentSize, true);
+        queue = new ArrayBlockingQueue<>(config.getQueueCapacity());
+
+        Gauge.builder("ingest.queue.depth", queue, BlockingQueue::size)
+                .description("等待写入向量库的行数")
+                .register(meterRegistry);
+        Gauge.builder("ingest.lag.records", unflushed, Map::size)
+                .description("已受理但未写入向量库的行数")
+                .register(meterRegistry);
+        Gauge.builder("ingest.lag.seconds", this, IngestBuffer::lagSeconds)
+                .description("最早一条未写入记录的受理时长")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        flushTimer = Timer.builder("ingest.flush")
+                .description("单批向量化并写入向量库的耗时")
+                .register(meterRegistry);
+        flushedRows = Counter.builder("ingest.rows.flushed").register(meterRegistry);
+        deadLetteredRows = Counter.builder("ingest.rows.dead_lettered")
+                .description("超过最大尝试次数转入死信日志的行数")
+                .register(meterRegistry);
+        Gauge.builder("ingest.dead_letter.records", deadLetterCount, AtomicLong::get)
+                .description("死信日志中待处理的行数")
+                .register(meterRegistry);
+
+        running = true;
+        for (int i = 0; i < config.getWorkers(); i++) {
+            Thread worker = new Thread(this::work, "ingest-worker-" + i);
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+
+        // 重放时队列可能写满，阻塞等待后台线程消费
+        wal.replay(record -> {
+            unflushed.put(record.getSequence(), record.getCreatedAt());
+            enqueue(new PendingRow(record));
+        });
+        deadLetters.replay(record -> deadLetterCount.incrementAndGet());
+        log.info("异步写入已启用, 预写日志目录: {}, 写入线程数: {}, 待重放行数: {}",
+                config.getWalPath(), config.getWorkers(), unflushed.size());
+        if (deadLetterCount.get() > 0) {
+            log.warn("死信日志中有 {} 行待处理, 确认原因后通过死信重放接口重新写入", deadLetterCount.get());
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (wal == null) {
+            return;
+        }
+        running = false;
+        workers.forEach(Thread::interrupt);
+        for (Thread worker : workers) {
+            try {
+                worker.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        try {
+            wal.close();
+            deadLetters.close();
+        } catch (IOException e) {
+            log.warn("关闭预写日志失败", e);
+        }
+        log.info("异步写入已停止, 未写入行数: {}（下次启动时重放）", unflushed.size());
+    }
+
+    public boolean isEnabled() {
+        return wal != null;
+    }
+
+    /**
+     * 受理一行数据：分配主键并追加到预写日志
+     * @return 分配的主键
+     */
+    public long submit(VectorDTO request) {
+        return submitAll(Collections.singletonList(request))[0];
+    }
+
+    /**
+     * 批量受理，全部追加到预写日志后返回；队列剩余容量不足或有描述为空的行时整批拒绝
+     * @return 按请求顺序分配的主键
+     */
+    public long[] submitAll(List<VectorDTO> requests) {
+        for (VectorDTO request : requests) {
+            if (!hasDescription(request.getDescription())) {
+                throw new IllegalArgumentException("描述不能为空");
+            }
+        }
+        long[] ids = new long[requests.size()];
+        appendLock.lock();
+        try {
+            if (!running) {
+                throw new IllegalStateException("异步写入未启用或已停止");
+            }
+            if (queue.remainingCapacity() < requests.size()) {
+                throw new IngestOverloadedException("异步写入队列已满, 容量: " + milvusProperties.getIngest().getQueueCapacity());
+            }
+            try {
+                for (int i = 0; i < requests.size(); i++) {
+                    VectorDTO request = requests.get(i);
+                    ids[i] = idGenerator.nextId();
+                    WalRecord record = wal.append(ids[i], request.getSegment(), request.getDescription());
+                    unflushed.put(record.getSequence(), record.getCreatedAt());
+                    queue.add(new PendingRow(record));
+                }
+            } catch (IOException e) {
+                throw new RuntimeException("写入预写日志失败", e);
+            }
+        } finally {
+            appendLock.unlock();
+        }
+        return ids;
+    }
+
+    private double lagSeconds() {
+        Map.Entry<Long, Long> oldest = unflushed.firstEntry();
+        return oldest == null ? 0 : (System.currentTimeMillis() - oldest.getValue()) / 1000.0;
+    }
+
+    /**
+     * 写入循环：取到第一行后，在 flush-interval 内继续收集直到达到 flush-rows
+     */
+    private void work() {
+        MilvusProperties.Ingest config = milvusProperties.getIngest();
+        long intervalNanos = config.getFlushInterval().toNanos();
+        int flushRows = config.getFlushRows();
+        while (running) {
+            try {
+                List<PendingRow> batch = new ArrayList<>(flushRows);
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + intervalNanos;
+                while (batch.size() < flushRows) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingRow next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("异步写入线程异常", e);
+            }
+        }
+    }
+
+    /**
+     * 写入一批，直到全部成功、转入死信日志或停止；停止时未写入的行留在预写日志中，下次启动重放
+     */
+    private void flush(List<PendingRow> batch) throws InterruptedException {
+        MilvusProperties.Ingest config = milvusProperties.getIngest();
+        List<PendingRow> pending = batch;
+        while (!pending.isEmpty()) {
+            List<PendingRow> failed = flushOnce(pending);
+            List<PendingRow> retry = new ArrayList<>(failed.size());
+            List<PendingRow> exhausted = new ArrayList<>();
+            for (PendingRow row : failed) {
+                if (++row.attempts >= config.getMaxAttempts()) {
+                    exhausted.add(row);
+                } else {
+                    retry.add(row);
+                }
+            }
+            retry.addAll(deadLetter(exhausted));
+            if (!retry.isEmpty()) {
+                if (!running) {
+                    return;
+                }
+                Thread.sleep(retryBackoff(config, retry.get(0).attempts).toMillis());
+            }
+            pending = retry;
+        }
+    }
+
+    /**
+     * 第attempts次失败后的重试间隔：retry-backoff按2的幂增长，不超过max-retry-backoff
+     */
+    static Duration retryBackoff(MilvusProperties.Ingest config, int attempts) {
+        Duration backoff = config.getRetryBackoff().multipliedBy(1L << Math.min(Math.max(attempts - 1, 0), 20));
+        return backoff.compareTo(config.getMaxRetryBackoff()) > 0 ? config.getMaxRetryBackoff() : backoff;
+    }
+
+    /**
+     * 把超过最大尝试次数的行追加到死信日志后标记完成，返回写死信日志失败、需要继续重试的行
+     */
+    private List<PendingRow> deadLetter(List<PendingRow> rows) {
+        if (rows.isEmpty()) {
+            return rows;
+        }
+        List<PendingRow> moved = new ArrayList<>(rows.size());
+        List<PendingRow> remaining = new ArrayList<>();
+        for (PendingRow row : rows) {
+            WalRecord record = row.record;
+            try {
+                deadLetters.append(record.getId(), record.getSegment(), record.getDescription());
+                moved.add(row);
+                log.error("异步写入超过最大尝试次数, 转入死信日志等待人工处理, ID: {}, segment: {}",
+                        record.getId(), record.getSegment());
+            } catch (Exception e) {
+                log.error("写入死信日志失败, 继续重试, ID: {}", record.getId(), e);
+                remaining.add(row);
+            }
+        }
+        deadLetteredRows.increment(moved.size());
+        deadLetterCount.addAndGet(moved.size());
+        complete(moved);
+        return remaining;
+    }
+
+    /**
+     * 查看死信日志中待处理的记录
+     * @param limit 最多返回的行数
+     */
+    public List<WalRecord> listDeadLetters(int limit) {
+        requireEnabled();
+        List<WalRecord> records = new ArrayList<>();
+        try {
+            deadLetters.scan(deadLetters.lastSequence(), record -> {
+                if (records.size() < limit) {
+                    records.add(record);
+                }
+            });
+        } catch (IOException e) {
+            throw new RuntimeException("读取死信日志失败", e);
+        }
+        return records;
+    }
+
+    /**
+     * 把死信日志中当前的全部记录重新追加到预写日志，然后推进死信日志的checkpoint；
+     * 重新写入期间新转入的死信保留在死信日志中。两步之间崩溃会导致重复追加，按主键upsert是幂等的
+     * @return 重新写入的行数
+     */
+    public int replayDeadLetters() {
+        requireEnabled();
+        deadLetterLock.lock();
+        try {
+            long toSequence = deadLetters.lastSequence();
+            List<WalRecord> records = new ArrayList<>();
+            deadLetters.scan(toSequence, records::add);
+            for (WalRecord deadRecord : records) {
+                WalRecord record;
+                appendLock.lock();
+                try {
+                    record = wal.append(deadRecord.getId(), deadRecord.getSegment(), deadRecord.getDescription());
+                    unflushed.put(record.getSequence(), record.getCreatedAt());
+                } finally {
+                    appendLock.unlock();
+                }
+                // 队列满时阻塞，不能持有appendLock，否则后台线程无法标记完成
+                enqueue(new PendingRow(record));
+            }
+            deadLetters.checkpoint(toSequence);
+            deadLetterCount.addAndGet(-records.size());
+            log.info("死信日志重新写入, 行数: {}", records.size());
+            return records.size();
+        } catch (IOException e) {
+            throw new RuntimeException("死信重新写入预写日志失败", e);
+        } finally {
+            deadLetterLock.unlock();
+        }
+    }
+
+    private void requireEnabled() {
+        if (!running) {
+            throw new IllegalStateException("异步写入未启用或已停止");
+        }
+    }
+
+    private void enqueue(PendingRow row) {
+        try {
+            queue.put(row);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("等待异步写入队列被中断", e);
+        }
+    }
+
+    /**
+     * 向量化并写入一次，返回失败的行
+     * 描述为空的行（旧版本写入的日志）无法向量化，直接记为失败，不影响同批其他行
+     */
+    private List<PendingRow> flushOnce(List<PendingRow> batch) {
+        List<PendingRow> rows = new ArrayList<>(batch.size());
+        List<PendingRow> invalid = new ArrayList<>();
+        for (PendingRow row : batch) {
+            if (hasDescription(row.record.getDescription())) {
+                rows.add(row);
+            } else {
+                invalid.add(row);
+            }
+        }
+        if (!invalid.isEmpty()) {
+            log.warn("异步写入跳过描述为空的行, 行数: {}", invalid.size());
+        }
+        if (rows.isEmpty()) {
+            return invalid;
+        }
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            List<float[]> vectors = embeddingClient.embedAll(rows.stream()
+                    .map(row -> row.record.getDescription())
+                    .collect(Collectors.toList()));
+            List<VectorData> data = new ArrayList<>(rows.size());
+            for (int i = 0; i < rows.size(); i++) {
+                WalRecord record = rows.get(i).record;
+                data.add(VectorData.builder()
+                        .id(record.getId())
+                        .description(record.getDescription())
+                        .segment(record.getSegment())
+                        .descriptionVector(vectors.get(i))
+                        .build());
+            }
+
+            List<PendingRow> succeeded = new ArrayList<>(rows.size());
+            List<PendingRow> failed = new ArrayList<>();
+            for (BatchRowStatus status : vectorStore.upsertBatch(data)) {
+                PendingRow row = rows.get(status.getIndex());
+                if (Boolean.TRUE.equals(status.getSuccess())) {
+                    succeeded.add(row);
+                } else {
+                    log.warn("异步写入失败, ID: {}, 原因: {}", row.record.getId(), status.getMessage());
+                    failed.add(row);
+                }
+            }
+            flushedRows.increment(succeeded.size());
+            complete(succeeded);
+            rows.stream().map(row -> row.record.getSegment()).distinct().forEach(searchResultCache::invalidate);
+            log.debug("异步写入批次完成, 行数: {}, 失败: {}", rows.size(), failed.size());
+            failed.addAll(invalid);
+            return failed;
+        } catch (Exception e) {
+            log.error("异步写入批次失败, 行数: {}", rows.size(), e);
+            rows.addAll(invalid);
+            return rows;
+        } finally {
+            sample.stop(flushTimer);
+        }
+    }
+
+    /**
+     * 标记记录已写入，并把checkpoint推进到最早未写入记录之前
+     */
+    private void complete(List<PendingRow> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        appendLock.lock();
+        try {
+            rows.forEach(row -> unflushed.remove(row.record.getSequence()));
+            Long oldest = unflushed.isEmpty() ? null : unflushed.firstKey();
+            long checkpoint = oldest != null ? oldest - 1 : wal.lastSequence();
+            try {
+                wal.checkpoint(checkpoint);
+            } catch (IOException e) {
+                log.warn("更新预写日志checkpoint失败", e);
+            }
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    private static boolean hasDescription(String description) {
+        return description != null && !description.isBlank();
+    }
+
+    private static class PendingRow {
+        private final WalRecord record;
+        private int attempts;
+
+        private PendingRow(WalRecord record) {
+            this.record = record;
+        }
+    }
+}
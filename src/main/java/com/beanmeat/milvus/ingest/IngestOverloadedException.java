@@ -0,0 +1,13 @@
+package com.beanmeat.milvus.ingest;
+
+import com.beanmeat.milvus.exception.OverloadedException;
+
+/**
+ * 异步写入过载异常：待写入队列已满
+ */
+public class IngestOverloadedException extends OverloadedException {
+
+    public IngestOverloadedException(String message) {
+        super(message);
+    }
+}
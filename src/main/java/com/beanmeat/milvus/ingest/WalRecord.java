@@ -0,0 +1,26 @@
+package com.beanmeat.milvus.ingest;
+
+import lombok.Value;
+
+/**
+ * 预写日志记录：已受理、待向量化并写入向量库的一行数据
+ */
+@Value
+public class WalRecord {
+
+    /**
+     * 日志序号，单调递增
+     */
+    long sequence;
+
+    long id;
+
+    Integer segment;
+
+    String description;
+
+    /**
+     * 受理时间（毫秒）
+     */
+    long createdAt;
+}
@@ -0,0 +1,289 @@
+package com.beanmeat.milvus.ingest;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * 基于内存映射文件的预写日志
+ *
+ * 日志由多个固定大小的段文件组成，文件名为段内第一条记录的序号（wal-序号.log）。
+ * 记录格式：[length:int][crc32:int][sequence:long][id:long][createdAt:long][segment:int][descLength:int][desc]，
+ * length为crc之后的字节数，length为0表示段结束；segment为Integer.MIN_VALUE、descLength为-1分别表示该字段为null。checkpoint文件保存已写入向量库的最大连续序号，
+ * 完全落在checkpoint之前的段文件会被删除。每次启动新开一个段文件继续追加。
+ * 使用ReentrantLock而不是synchronized，开启sync-on-append时刷盘不会把虚拟线程钉住在载体线程上。
+ */
+@Slf4j
+public class WriteAheadLog implements Closeable {
+
+    private static final int RECORD_PREFIX = 4 + 4;
+    private static final int RECORD_FIXED = 8 + 8 + 8 + 4 + 4;
+    private static final int NULL_SEGMENT = Integer.MIN_VALUE;
+    private static final int NULL_DESCRIPTION = -1;
+    private static final String CHECKPOINT_FILE = "checkpoint";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final boolean syncOnAppend;
+    private final FileChannel checkpointChannel;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private long activeFirstSequence;
+    private long lastSequence;
+    private long checkpoint;
+
+    /**
+     * @param segmentSize 段文件大小（字节），单个内存映射上限为2GB，超出时按上限处理
+     */
+    public WriteAheadLog(Path directory, long segmentSize, boolean syncOnAppend) throws IOException {
+        this.directory = directory;
+        this.segmentSize = (int) Math.min(segmentSize, Integer.MAX_VALUE);
+        this.syncOnAppend = syncOnAppend;
+        Files.createDirectories(directory);
+        this.checkpointChannel = FileChannel.open(directory.resolve(CHECKPOINT_FILE), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        ByteBuffer value = ByteBuffer.allocate(8);
+        if (checkpointChannel.read(value, 0) == 8) {
+            checkpoint = value.flip().getLong();
+        }
+        lastSequence = checkpoint;
+    }
+
+    /**
+     * 回放checkpoint之后的记录，并打开新的段文件用于追加
+     */
+    public void replay(Consumer<WalRecord> consumer) throws IOException {
+        lock.lock();
+        try {
+            int[] replayed = new int[1];
+            readSegments(record -> {
+                lastSequence = Math.max(lastSequence, record.getSequence());
+                if (record.getSequence() > checkpoint) {
+                    consumer.accept(record);
+                    replayed[0]++;
+                }
+            });
+            openSegment(lastSequence + 1);
+            deleteFlushedSegments();
+            log.info("预写日志回放完成, 目录: {}, checkpoint: {}, 回放记录数: {}", directory, checkpoint, replayed[0]);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 读取checkpoint之后、序号不超过toSequence的记录，不改变日志状态；需在 {@link #replay(Consumer)} 之后调用
+     */
+    public void scan(long toSequence, Consumer<WalRecord> consumer) throws IOException {
+        lock.lock();
+        try {
+            readSegments(record -> {
+                if (record.getSequence() > checkpoint && record.getSequence() <= toSequence) {
+                    consumer.accept(record);
+                }
+            });
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 追加一条记录
+     * @return 记录序号
+     */
+    public WalRecord append(long id, Integer segment, String description) throws IOException {
+        lock.lock();
+        try {
+            byte[] descBytes = description != null ? description.getBytes(StandardCharsets.UTF_8) : new byte[0];
+            int length = RECORD_FIXED + descBytes.length;
+            if (RECORD_PREFIX + length + RECORD_PREFIX > segmentSize) {
+                throw new IllegalArgumentException("记录超过预写日志段大小: " + length);
+            }
+            if (buffer.position() + RECORD_PREFIX + length + RECORD_PREFIX > segmentSize) {
+                openSegment(lastSequence + 1);
+            }
+
+            WalRecord record = new WalRecord(lastSequence + 1, id, segment, description, System.currentTimeMillis());
+            int start = buffer.position();
+            buffer.position(start + RECORD_PREFIX);
+            buffer.putLong(record.getSequence());
+            buffer.putLong(id);
+            buffer.putLong(record.getCreatedAt());
+            buffer.putInt(segment != null ? segment : NULL_SEGMENT);
+            buffer.putInt(description != null ? descBytes.length : NULL_DESCRIPTION);
+            buffer.put(descBytes);
+            // 先写记录体，最后写长度，保证崩溃时不会读到半条记录
+            buffer.putInt(start + 4, crc(buffer, start + RECORD_PREFIX, length));
+            buffer.putInt(start, length);
+            if (syncOnAppend) {
+                buffer.force();
+            }
+            lastSequence = record.getSequence();
+            return record;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 更新checkpoint并删除已全部写入的段文件
+     */
+    public void checkpoint(long sequence) throws IOException {
+        lock.lock();
+        try {
+            if (sequence <= checkpoint) {
+                return;
+            }
+            checkpoint = sequence;
+            checkpointChannel.write(ByteBuffer.allocate(8).putLong(0, sequence), 0);
+            deleteFlushedSegments();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 删除记录全部在checkpoint之前的非活动段文件
+     */
+    private void deleteFlushedSegments() throws IOException {
+        List<Path> files = segmentFiles();
+        for (int i = 0; i + 1 < files.size(); i++) {
+            long nextFirst = firstSequence(files.get(i + 1));
+            if (nextFirst - 1 <= checkpoint && firstSequence(files.get(i)) != activeFirstSequence) {
+                Files.deleteIfExists(files.get(i));
+            }
+        }
+    }
+
+    public long lastSequence() {
+        lock.lock();
+        try {
+            return lastSequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long checkpointSequence() {
+        lock.lock();
+        try {
+            return checkpoint;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            if (buffer != null) {
+                buffer.force();
+            }
+            if (channel != null) {
+                channel.close();
+            }
+            checkpointChannel.force(true);
+            checkpointChannel.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void openSegment(long firstSequence) throws IOException {
+        if (channel != null) {
+            buffer.force();
+            channel.close();
+        }
+        Path file = directory.resolve(String.format("wal-%020d.log", firstSequence));
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        buffer.position(0);
+        activeFirstSequence = firstSequence;
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().matches("wal-\\d{20}\\.log"))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * 按序号顺序读取全部段文件中的有效记录，活动段通过只读映射读取已写入的部分
+     */
+    private void readSegments(Consumer<WalRecord> consumer) throws IOException {
+        for (Path file : segmentFiles()) {
+            try (FileChannel readChannel = FileChannel.open(file, StandardOpenOption.READ)) {
+                MappedByteBuffer readBuffer = readChannel.map(FileChannel.MapMode.READ_ONLY, 0, readChannel.size());
+                WalRecord record;
+                while ((record = read(readBuffer)) != null) {
+                    consumer.accept(record);
+                }
+            }
+        }
+    }
+
+    private static long firstSequence(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(4, name.length() - 4));
+    }
+
+    /**
+     * 读取下一条记录，到达段结束或记录损坏时返回null
+     */
+    private static WalRecord read(MappedByteBuffer buffer) {
+        if (buffer.remaining() < RECORD_PREFIX) {
+            return null;
+        }
+        int start = buffer.position();
+        int length = buffer.getInt(start);
+        if (length < RECORD_FIXED || length > buffer.limit() - start - RECORD_PREFIX) {
+            return null;
+        }
+        int descLength = buffer.getInt(start + RECORD_PREFIX + RECORD_FIXED - 4);
+        boolean lengthMatches = descLength == length - RECORD_FIXED
+                || (descLength == NULL_DESCRIPTION && length == RECORD_FIXED);
+        if (!lengthMatches || buffer.getInt(start + 4) != crc(buffer, start + RECORD_PREFIX, length)) {
+            log.warn("预写日志记录校验失败, 位置: {}", start);
+            return null;
+        }
+        buffer.position(start + RECORD_PREFIX);
+        long sequence = buffer.getLong();
+        long id = buffer.getLong();
+        long createdAt = buffer.getLong();
+        int segment = buffer.getInt();
+        buffer.getInt();
+        String description = null;
+        if (descLength != NULL_DESCRIPTION) {
+            byte[] descBytes = new byte[descLength];
+            buffer.get(descBytes);
+            description = new String(descBytes, StandardCharsets.UTF_8);
+        }
+        return new WalRecord(sequence, id, segment == NULL_SEGMENT ? null : segment, description, createdAt);
+    }
+
+    private static int crc(ByteBuffer buffer, int offset, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(offset, length));
+        return (int) crc.getValue();
+    }
+}
@@ -1,27 +1,120 @@
 package com.beanmeat.milvus.repository;
 
+import lombok.RequiredArgsConstructor;
 import okhttp3.*;
+import org.springframework.stereotype.Component;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * HTTP调用工具，基于共享的OkHttpClient连接池
+ */
+@Component
+@RequiredArgsConstructor
 public class HttpUtil {
     private static final MediaType JSON_MEDIA_TYPE = MediaType.get("application/json; charset=utf-8");
-    private static final OkHttpClient client = new OkHttpClient();
 
-    public static String postJson(String url, String json) {
+    private final OkHttpClient client;
+
+    /**
+     * 同步POST JSON，使用默认超时
+     */
+    public String postJson(String url, String json) {
+        return postJson(url, json, null);
+    }
+
+    /**
+     * 同步POST JSON
+     * @param timeout 本次调用超时，为null时使用客户端默认值
+     */
+    public String postJson(String url, String json, Duration timeout) {
+        return postJson(url, json, timeout, ResponseBody::string);
+    }
+
+    /**
+     * 同步POST JSON，由bodyReader直接消费响应流
+     * @param timeout 本次调用超时，为null时使用客户端默认值
+     */
+    public <T> T postJson(String url, String json, Duration timeout, BodyReader<T> bodyReader) {
+        Call call = newCall(url, json, timeout);
+        try (Response response = call.execute()) {
+            return readBody(url, response, bodyReader);
+        } catch (IOException e) {
+            throw new RuntimeException("HTTP请求失败: " + url, e);
+        }
+    }
+
+    /**
+     * 异步POST JSON，不占用调用线程等待响应
+     * @param timeout 本次调用超时，为null时使用客户端默认值
+     */
+    public CompletableFuture<String> postJsonAsync(String url, String json, Duration timeout) {
+        return postJsonAsync(url, json, timeout, ResponseBody::string);
+    }
+
+    /**
+     * 异步POST JSON，由bodyReader在回调线程直接消费响应流
+     * @param timeout 本次调用超时，为null时使用客户端默认值
+     */
+    public <T> CompletableFuture<T> postJsonAsync(String url, String json, Duration timeout, BodyReader<T> bodyReader) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        Call call = newCall(url, json, timeout);
+        call.enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                future.completeExceptionally(new RuntimeException("HTTP请求失败: " + url, e));
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) {
+                try (response) {
+                    future.complete(readBody(url, response, bodyReader));
+                } catch (Exception e) {
+                    future.completeExceptionally(e);
+                }
+            }
+        });
+        future.whenComplete((result, error) -> {
+            if (future.isCancelled()) {
+                call.cancel();
+            }
+        });
+        return future;
+    }
+
+    private Call newCall(String url, String json, Duration timeout) {
         RequestBody body = RequestBody.create(json, JSON_MEDIA_TYPE);
         Request request = new Request.Builder()
                 .url(url)
                 .post(body)
                 .build();
-        
-        try (Response response = client.newCall(request).execute()) {
-            if (response.body() != null) {
-                return response.body().string();
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
+        Call call = client.newCall(request);
+        if (timeout != null) {
+            call.timeout().timeout(timeout.toMillis(), TimeUnit.MILLISECONDS);
         }
-        return "";
+        return call;
+    }
+
+    private static <T> T readBody(String url, Response response, BodyReader<T> bodyReader) throws IOException {
+        ResponseBody body = response.body();
+        if (!response.isSuccessful()) {
+            throw new RuntimeException("HTTP请求失败: " + url + ", 状态码: " + response.code()
+                    + (body != null ? ", 响应: " + body.string() : ""));
+        }
+        if (body == null) {
+            throw new RuntimeException("HTTP响应为空: " + url);
+        }
+        return bodyReader.read(body);
+    }
+
+    /**
+     * 响应体读取函数
+     */
+    @FunctionalInterface
+    public interface BodyReader<T> {
+        T read(ResponseBody body) throws IOException;
     }
 }
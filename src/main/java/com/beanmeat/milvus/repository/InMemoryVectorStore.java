@@ -0,0 +1,426 @@
+package com.beanmeat.milvus.repository;
+
+import com.beanmeat.milvus.config.MilvusProperties;
+import com.beanmeat.milvus.dto.BatchRowStatus;
+import com.beanmeat.milvus.dto.VectorSearchResult;
+import com.beanmeat.milvus.entity.VectorData;
+import io.milvus.v2.common.ConsistencyLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * 进程内向量存储，用于无Milvus环境下的压测和联调
+ *
+ * 每个segment按列存储：id、描述各一个数组，向量连续存放在一个float数组中，删除时用末行填补空位。
+ * 搜索为暴力精确计算，度量方式与集合配置一致（COSINE / IP / L2，L2返回平方距离，越小越相似）；
+ * segment过滤语义与Milvus实现相同。一致性级别和索引搜索参数不生效，所有读写立即可见。
+ *
+ * 与Milvus的差异：Milvus的insert不检查主键，重复主键的两行会同时保留，查询可能返回两行，直到删除或compaction；
+ * 这里的insert同样不报错，但重复主键会替换已有行，读到的始终是最后写入的一行。依赖重复主键行为的测试需在真实Milvus上验证。
+ */
+@Slf4j
+@Repository
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "milvus", name = "store-type", havingValue = "memory")
+public class InMemoryVectorStore implements VectorStore {
+
+    private final MilvusProperties milvusProperties;
+
+    private final Map<Integer, Segment> segments = new HashMap<>();
+    private final Map<Long, Integer> segmentOfId = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Override
+    public void createCollection() {
+        lock.writeLock().lock();
+        try {
+            segments.clear();
+            segmentOfId.clear();
+            log.info("内存向量存储已重建, 维度: {}, 度量: {}", dimension(), metricType());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 与Milvus一样不检查主键重复；重复主键按upsert处理，只保留最后写入的一行（见类注释）
+     */
+    @Override
+    public void insert(VectorData vectorData) {
+        upsert(vectorData);
+    }
+
+    @Override
+    public List<BatchRowStatus> insertBatch(List<VectorData> rows) {
+        return writeBatch(rows, this::insert);
+    }
+
+    @Override
+    public void upsert(VectorData vectorData) {
+        checkDimension(vectorData);
+        lock.writeLock().lock();
+        try {
+            remove(vectorData.getId());
+            put(vectorData);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<BatchRowStatus> upsertBatch(List<VectorData> rows) {
+        return writeBatch(rows, this::upsert);
+    }
+
+    @Override
+    public void deleteById(String ids) {
+        List<Long> idList = Arrays.stream(ids.split(",")).map(String::trim).map(Long::parseLong)
+                .collect(Collectors.toList());
+        lock.writeLock().lock();
+        try {
+            idList.forEach(this::remove);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<VectorData> findBySegment(Long segment, ConsistencyLevel consistencyLevel, boolean includeVector) {
+        lock.readLock().lock();
+        try {
+            Segment data = segments.get(segment.intValue());
+            if (data == null) {
+                return new ArrayList<>();
+            }
+            List<VectorData> ret = new ArrayList<>(data.size);
+            for (int slot = 0; slot < data.size; slot++) {
+                ret.add(data.toVectorData(slot, includeVector));
+            }
+            return ret;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void iterateBySegment(Long segment, Long afterId, ConsistencyLevel consistencyLevel, boolean includeVector,
+                                 int pageSize, Consumer<List<VectorData>> pageConsumer) {
+        long[] ids;
+        lock.readLock().lock();
+        try {
+            Segment data = segments.get(segment.intValue());
+            if (data == null) {
+                return;
+            }
+            ids = Arrays.copyOf(data.ids, data.size);
+        } finally {
+            lock.readLock().unlock();
+        }
+        Arrays.sort(ids);
+        int start = afterId != null ? upperBound(ids, afterId) : 0;
+        while (start < ids.length) {
+            int end = Math.min(start + pageSize, ids.length);
+            List<VectorData> page = new ArrayList<>(end - start);
+            lock.readLock().lock();
+            try {
+                Segment data = segments.get(segment.intValue());
+                for (int i = start; i < end && data != null; i++) {
+                    Integer slot = data.slotOfId.get(ids[i]);
+                    if (slot != null) {
+                        page.add(data.toVectorData(slot, includeVector));
+                    }
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+            if (!page.isEmpty()) {
+                pageConsumer.accept(page);
+            }
+            start = end;
+        }
+    }
+
+    @Override
+    public List<VectorSearchResult> search(float[] queryVector, int topK, List<Integer> targetSegments, Map<String, Object> searchParams,
+                                           ConsistencyLevel consistencyLevel, List<String> fields, boolean includeVector) {
+        List<String> outputFields = VectorStore.outputFields(fields, includeVector);
+        String metricType = metricType();
+        boolean smallerIsBetter = "L2".equals(metricType);
+        float queryNorm = norm(queryVector, 0, queryVector.length);
+
+        lock.readLock().lock();
+        try {
+            Collection<Segment> candidates = segments.values();
+            if (targetSegments != null && !targetSegments.isEmpty()) {
+                candidates = targetSegments.stream().map(segments::get).filter(Objects::nonNull).collect(Collectors.toList());
+            }
+
+            // 堆顶为当前topK中最差的结果
+            PriorityQueue<Hit> heap = new PriorityQueue<>(topK + 1, smallerIsBetter
+                    ? Comparator.comparingDouble((Hit hit) -> hit.score).reversed()
+                    : Comparator.comparingDouble((Hit hit) -> hit.score));
+            for (Segment data : candidates) {
+                for (int slot = 0; slot < data.size; slot++) {
+                    float score = score(metricType, queryVector, queryNorm, data, slot);
+                    if (heap.size() < topK) {
+                        heap.add(new Hit(data, slot, score));
+                    } else if (smallerIsBetter ? score < heap.peek().score : score > heap.peek().score) {
+                        heap.poll();
+                        heap.add(new Hit(data, slot, score));
+                    }
+                }
+            }
+
+            List<VectorSearchResult> ret = new ArrayList<>(heap.size());
+            while (!heap.isEmpty()) {
+                Hit hit = heap.poll();
+                ret.add(VectorSearchResult.builder()
+                        .id(hit.segment.ids[hit.slot])
+                        .score(hit.score)
+                        .description(outputFields.contains("description") ? hit.segment.descriptions[hit.slot] : null)
+                        .segment(outputFields.contains("segment") ? hit.segment.segment : null)
+                        .descriptionVector(includeVector ? hit.segment.vector(hit.slot) : null)
+                        .build());
+            }
+            Collections.reverse(ret);
+            return ret;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 进程内存储没有稀疏索引，退化为稠密检索
+     */
+    @Override
+    public List<VectorSearchResult> hybridSearch(float[] queryVector, String queryText, int topK, List<Integer> segments,
+                                                 Map<String, Object> searchParams, ConsistencyLevel consistencyLevel,
+                                                 List<String> fields, boolean includeVector,
+                                                 MilvusProperties.RankerType rankerType) {
+        return search(queryVector, topK, segments, searchParams, consistencyLevel, fields, includeVector);
+    }
+
+    @Override
+    public VectorData findById(String id) {
+        List<VectorData> ret = findByIds(Collections.singletonList(Long.parseLong(id)));
+        return ret.isEmpty() ? null : ret.get(0);
+    }
+
+    @Override
+    public List<VectorData> findByIds(List<Long> ids) {
+        lock.readLock().lock();
+        try {
+            List<VectorData> ret = new ArrayList<>(ids.size());
+            for (Long id : ids) {
+                Integer segment = segmentOfId.get(id);
+                if (segment == null && !segmentOfId.containsKey(id)) {
+                    continue;
+                }
+                Segment data = segments.get(segment);
+                ret.add(data.toVectorData(data.slotOfId.get(id), true));
+            }
+            return ret;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Set<Integer> findSegmentsByIds(List<Long> ids) {
+        lock.readLock().lock();
+        try {
+            Set<Integer> ret = new HashSet<>();
+            for (Long id : ids) {
+                if (segmentOfId.containsKey(id)) {
+                    ret.add(segmentOfId.get(id));
+                }
+            }
+            return ret;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<BatchRowStatus> writeBatch(List<VectorData> rows, Consumer<VectorData> writer) {
+        List<BatchRowStatus> statuses = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            String message = null;
+            try {
+                writer.accept(rows.get(i));
+            } catch (Exception e) {
+                message = e.getMessage();
+            }
+            statuses.add(BatchRowStatus.builder()
+                    .index(i)
+                    .id(rows.get(i).getId())
+                    .success(message == null)
+                    .message(message)
+                    .build());
+        }
+        return statuses;
+    }
+
+    /**
+     * 写入一行，调用方持有写锁
+     */
+    private void put(VectorData vectorData) {
+        segments.computeIfAbsent(vectorData.getSegment(), segment -> new Segment(segment, dimension()))
+                .add(vectorData.getId(), vectorData.getDescription(), vectorData.getDescriptionVector());
+        segmentOfId.put(vectorData.getId(), vectorData.getSegment());
+    }
+
+    /**
+     * 删除一行，调用方持有写锁
+     */
+    private void remove(Long id) {
+        if (!segmentOfId.containsKey(id)) {
+            return;
+        }
+        Integer segment = segmentOfId.remove(id);
+        Segment data = segments.get(segment);
+        data.remove(id);
+        if (data.size == 0) {
+            segments.remove(segment);
+        }
+    }
+
+    private void checkDimension(VectorData vectorData) {
+        float[] vector = vectorData.getDescriptionVector();
+        if (vector == null || vector.length != dimension()) {
+            throw new IllegalArgumentException("向量维度不匹配, 期望: " + dimension()
+                    + ", 实际: " + (vector == null ? 0 : vector.length));
+        }
+    }
+
+    private int dimension() {
+        return milvusProperties.getCollection().getFields().getDescriptionVector().getDimension();
+    }
+
+    private String metricType() {
+        String metricType = milvusProperties.getCollection().getFields().getDescriptionVector().getMetricType();
+        return metricType != null ? metricType.toUpperCase() : "COSINE";
+    }
+
+    private static float score(String metricType, float[] query, float queryNorm, Segment data, int slot) {
+        float[] vectors = data.vectors;
+        int offset = slot * data.dimension;
+        if ("L2".equals(metricType)) {
+            float sum = 0;
+            for (int i = 0; i < query.length; i++) {
+                float diff = query[i] - vectors[offset + i];
+                sum += diff * diff;
+            }
+            return sum;
+        }
+        float dot = 0;
+        for (int i = 0; i < query.length; i++) {
+            dot += query[i] * vectors[offset + i];
+        }
+        if ("IP".equals(metricType)) {
+            return dot;
+        }
+        float denominator = queryNorm * data.norms[slot];
+        return denominator == 0 ? 0 : dot / denominator;
+    }
+
+    private static float norm(float[] vector, int offset, int length) {
+        float sum = 0;
+        for (int i = offset; i < offset + length; i++) {
+            sum += vector[i] * vector[i];
+        }
+        return (float) Math.sqrt(sum);
+    }
+
+    /**
+     * 有序数组中第一个大于key的位置
+     */
+    private static int upperBound(long[] sorted, long key) {
+        int index = Arrays.binarySearch(sorted, key);
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    /**
+     * 单个segment的列式存储
+     */
+    private static class Segment {
+        private final Integer segment;
+        private final int dimension;
+        private final Map<Long, Integer> slotOfId = new HashMap<>();
+        private long[] ids = new long[16];
+        private String[] descriptions = new String[16];
+        private float[] norms = new float[16];
+        private float[] vectors;
+        private int size;
+
+        Segment(Integer segment, int dimension) {
+            this.segment = segment;
+            this.dimension = dimension;
+            this.vectors = new float[16 * dimension];
+        }
+
+        void add(long id, String description, float[] vector) {
+            if (size == ids.length) {
+                int capacity = size * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                descriptions = Arrays.copyOf(descriptions, capacity);
+                norms = Arrays.copyOf(norms, capacity);
+                vectors = Arrays.copyOf(vectors, capacity * dimension);
+            }
+            ids[size] = id;
+            descriptions[size] = description;
+            System.arraycopy(vector, 0, vectors, size * dimension, dimension);
+            norms[size] = norm(vector, 0, dimension);
+            slotOfId.put(id, size);
+            size++;
+        }
+
+        void remove(long id) {
+            Integer slot = slotOfId.remove(id);
+            if (slot == null) {
+                return;
+            }
+            int last = size - 1;
+            if (slot != last) {
+                ids[slot] = ids[last];
+                descriptions[slot] = descriptions[last];
+                norms[slot] = norms[last];
+                System.arraycopy(vectors, last * dimension, vectors, slot * dimension, dimension);
+                slotOfId.put(ids[slot], slot);
+            }
+            descriptions[last] = null;
+            size--;
+        }
+
+        float[] vector(int slot) {
+            return Arrays.copyOfRange(vectors, slot * dimension, (slot + 1) * dimension);
+        }
+
+        VectorData toVectorData(int slot, boolean includeVector) {
+            return VectorData.builder()
+                    .id(ids[slot])
+                    .description(descriptions[slot])
+                    .segment(segment)
+                    .descriptionVector(includeVector ? vector(slot) : null)
+                    .build();
+        }
+    }
+
+    private static class Hit {
+        private final Segment segment;
+        private final int slot;
+        private final float score;
+
+        Hit(Segment segment, int slot, float score) {
+            this.segment = segment;
+            this.slot = slot;
+            this.score = score;
+        }
+    }
+}
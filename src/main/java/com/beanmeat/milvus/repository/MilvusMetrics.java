@@ -0,0 +1,117 @@
+package com.beanmeat.milvus.repository;
+
+import com.beanmeat.milvus.config.MilvusProperties;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Milvus调用指标
+ *
+ * milvus.operation：每次SDK调用的耗时，按collection、operation、segment_bucket、outcome打标签；
+ * milvus.mapping：SDK结果到DTO的转换耗时；milvus.requests.inflight：在途调用数；
+ * milvus.write.payload：写入分片的估算字节数。segment按 milvus.metrics.segment-buckets 取模分桶，控制标签基数。
+ */
+@Component
+@RequiredArgsConstructor
+public class MilvusMetrics {
+
+    private static final double[] PERCENTILES = {0.5, 0.95, 0.99};
+
+    private final MilvusProperties milvusProperties;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, AtomicInteger> inflight = new ConcurrentHashMap<>();
+
+    /**
+     * 记录一次Milvus调用
+     * @param operation 操作名：insert、upsert、delete、query、get、search、iterate
+     * @param segment 调用涉及的segment，跨segment时为null
+     */
+    public <T> T record(String operation, Integer segment, Supplier<T> call) {
+        AtomicInteger counter = inflight(operation);
+        counter.incrementAndGet();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            T result = call.get();
+            outcome = "success";
+            return result;
+        } finally {
+            sample.stop(Timer.builder("milvus.operation")
+                    .description("Milvus调用耗时")
+                    .tags("collection", collection(), "operation", operation,
+                            "segment_bucket", segmentBucket(segment), "outcome", outcome)
+                    .publishPercentiles(PERCENTILES)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+            counter.decrementAndGet();
+        }
+    }
+
+    /**
+     * 记录一次无返回值的Milvus调用
+     */
+    public void record(String operation, Integer segment, Runnable call) {
+        record(operation, segment, () -> {
+            call.run();
+            return null;
+        });
+    }
+
+    /**
+     * 记录SDK结果到DTO的转换耗时
+     */
+    public <T> T recordMapping(String operation, Supplier<T> mapping) {
+        return Timer.builder("milvus.mapping")
+                .description("Milvus结果转换耗时")
+                .tags("collection", collection(), "operation", operation)
+                .publishPercentiles(PERCENTILES)
+                .register(meterRegistry)
+                .record(mapping);
+    }
+
+    /**
+     * 记录写入分片的估算字节数
+     */
+    public void recordPayload(String operation, long bytes) {
+        DistributionSummary.builder("milvus.write.payload")
+                .description("写入分片估算字节数")
+                .baseUnit("bytes")
+                .tags("collection", collection(), "operation", operation)
+                .publishPercentiles(PERCENTILES)
+                .register(meterRegistry)
+                .record(bytes);
+    }
+
+    private AtomicInteger inflight(String operation) {
+        return inflight.computeIfAbsent(operation, key -> {
+            AtomicInteger counter = new AtomicInteger();
+            Gauge.builder("milvus.requests.inflight", counter, AtomicInteger::get)
+                    .description("在途Milvus调用数")
+                    .tags("collection", collection(), "operation", key)
+                    .register(meterRegistry);
+            return counter;
+        });
+    }
+
+    private String collection() {
+        return milvusProperties.getCollection().getName();
+    }
+
+    private String segmentBucket(Integer segment) {
+        if (segment == null) {
+            return "all";
+        }
+        int buckets = milvusProperties.getMetrics().getSegmentBuckets();
+        return String.valueOf(Math.floorMod(segment, buckets));
+    }
+}
@@ -1,48 +1,77 @@
 package com.beanmeat.milvus.repository;
 
-import com.alibaba.fastjson2.JSON;
-import com.alibaba.fastjson2.JSONObject;
 import com.beanmeat.milvus.config.MilvusProperties;
+import com.beanmeat.milvus.dto.BatchRowStatus;
+import com.beanmeat.milvus.dto.VectorSearchResult;
 import com.beanmeat.milvus.entity.VectorData;
+import com.alibaba.fastjson2.JSON;
+import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
+import io.milvus.common.clientenum.FunctionType;
 import io.milvus.grpc.QueryResults;
+import io.milvus.orm.iterator.QueryIterator;
 import io.milvus.param.R;
 import io.milvus.param.dml.QueryParam;
+import io.milvus.response.QueryResultsWrapper;
 import io.milvus.v2.client.MilvusClientV2;
 import io.milvus.v2.common.ConsistencyLevel;
 import io.milvus.v2.common.DataType;
 import io.milvus.v2.common.IndexParam;
 import io.milvus.v2.service.collection.request.*;
 import io.milvus.v2.service.collection.response.*;
+import io.milvus.v2.service.partition.request.CreatePartitionReq;
+import io.milvus.v2.service.partition.request.HasPartitionReq;
 import io.milvus.v2.service.vector.request.*;
+import io.milvus.v2.service.vector.request.data.EmbeddedText;
 import io.milvus.v2.service.vector.request.data.FloatVec;
+import io.milvus.v2.service.vector.request.ranker.BaseRanker;
+import io.milvus.v2.service.vector.request.ranker.RRFRanker;
+import io.milvus.v2.service.vector.request.ranker.WeightedRanker;
 import io.milvus.v2.service.vector.response.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Repository;
 import org.springframework.util.StreamUtils;
 
+import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
-import static com.beanmeat.milvus.service.VectorDataService.getVector;
-
 /**
  * Milvus数据访问层 - 使用V2客户端
  */
 @Slf4j
 @Repository
 @RequiredArgsConstructor
-public class MilvusRepository {
+@ConditionalOnProperty(prefix = "milvus", name = "store-type", havingValue = "milvus", matchIfMissing = true)
+public class MilvusRepository implements VectorStore {
 
     private String COLLECTION_NAME = "beanmeat_test";
 
+    /**
+     * 稀疏向量字段名
+     */
+    private static final String SPARSE_FIELD = "description_sparse";
+
     private final MilvusClientV2 milvusClient;
     private final MilvusProperties milvusProperties;
+    private final MilvusMetrics milvusMetrics;
+
+    /**
+     * 显式分区模式下已确认存在的分区
+     */
+    private final Set<String> knownPartitions = ConcurrentHashMap.newKeySet();
+    private final ReentrantLock partitionLock = new ReentrantLock();
 
     /**
      * 创建集合
      */
+    @Override
     public void createCollection() {
         try {
             // 检查Milvus集合是否存在
@@ -72,40 +101,74 @@ public class MilvusRepository {
                     .maxLength(64)
                     .build());
 
-            schema.addField(AddFieldReq.builder()
+            MilvusProperties.Hybrid hybrid = milvusProperties.getHybrid();
+            boolean hybridEnabled = Boolean.TRUE.equals(hybrid.getEnabled());
+            AddFieldReq.AddFieldReqBuilder<?, ?> descriptionField = AddFieldReq.builder()
                     .fieldName("description")
                     .dataType(DataType.VarChar)
-                    .maxLength(1024)
-                    .build());
+                    .maxLength(1024);
+            if (hybridEnabled) {
+                descriptionField.enableAnalyzer(true)
+                        .analyzerParams(Collections.singletonMap("type", hybrid.getAnalyzer()));
+            }
+            schema.addField(descriptionField.build());
             schema.addField(AddFieldReq.builder()
                     .fieldName("segment")
                     .dataType(DataType.Int64)
                     .maxLength(64)
+                    .isPartitionKey(partitionMode() == MilvusProperties.PartitionMode.PARTITION_KEY)
                     .build());
+            MilvusProperties.VectorFieldConfig vectorField = milvusProperties.getCollection().getFields().getDescriptionVector();
             schema.addField(AddFieldReq.builder()
                     .fieldName("description_vector")
                     .dataType(DataType.FloatVector)
-                    .dimension(1024)
+                    .dimension(vectorField.getDimension() != null ? vectorField.getDimension() : 1024)
                     .build());
+            if (hybridEnabled) {
+                // 稀疏向量由Milvus的BM25函数根据description生成，写入时无需提供
+                schema.addField(AddFieldReq.builder()
+                        .fieldName(SPARSE_FIELD)
+                        .dataType(DataType.SparseFloatVector)
+                        .build());
+                schema.addFunction(CreateCollectionReq.Function.builder()
+                        .name("description_bm25")
+                        .functionType(FunctionType.BM25)
+                        .inputFieldNames(Collections.singletonList("description"))
+                        .outputFieldNames(Collections.singletonList(SPARSE_FIELD))
+                        .build());
+            }
             
             // 配置索引
             List<IndexParam> indexes = new ArrayList<>();
             indexes.add(IndexParam.builder()
                     .fieldName("description_vector")
-                    .indexType(IndexParam.IndexType.FLAT)
-                    .metricType(IndexParam.MetricType.COSINE)
+                    .indexType(indexType())
+                    .metricType(metricType())
+                    .extraParams(normalizeParams(vectorField.getIndexParams()))
                     .build());
+            if (hybridEnabled) {
+                indexes.add(IndexParam.builder()
+                        .fieldName(SPARSE_FIELD)
+                        .indexType(IndexParam.IndexType.SPARSE_INVERTED_INDEX)
+                        .metricType(IndexParam.MetricType.BM25)
+                        .build());
+            }
+            log.info("向量索引配置: {}, 度量: {}, 参数: {}, 混合检索: {}", indexType(), metricType(),
+                    vectorField.getIndexParams(), hybridEnabled);
             
             // 创建集合
-            CreateCollectionReq requestCreate = CreateCollectionReq.builder()
+            CreateCollectionReq.CreateCollectionReqBuilder<?, ?> requestBuilder = CreateCollectionReq.builder()
                     .collectionName(COLLECTION_NAME)
                     .collectionSchema(schema)
                     .indexParams(indexes)
-                    .consistencyLevel(ConsistencyLevel.STRONG)
-                    .build();
+                    .consistencyLevel(collectionConsistencyLevel());
+            if (partitionMode() == MilvusProperties.PartitionMode.PARTITION_KEY) {
+                requestBuilder.numPartitions(milvusProperties.getCollection().getNumPartitions());
+            }
             
-            milvusClient.createCollection(requestCreate);
-            log.info("集合 {} 创建成功", COLLECTION_NAME);
+            milvusClient.createCollection(requestBuilder.build());
+            knownPartitions.clear();
+            log.info("集合 {} 创建成功, 分区方式: {}", COLLECTION_NAME, partitionMode());
             
         } catch (Exception e) {
             log.error("创建集合时发生错误", e);
@@ -117,24 +180,183 @@ public class MilvusRepository {
      * 插入向量数据
      * @param vectorData
      */
-    public void insert(JsonObject vectorData) {
+    @Override
+    public void insert(VectorData vectorData) {
         try {
             InsertReq insertReq = InsertReq.builder()
                     .collectionName(COLLECTION_NAME)
-                    .data(Collections.singletonList(vectorData))
+                    .partitionName(ensurePartition(vectorData.getSegment()))
+                    .data(Collections.singletonList(toRow(vectorData)))
                     .build();
             
-            milvusClient.insert(insertReq);
+            milvusMetrics.recordPayload("insert", estimateBytes(vectorData));
+            milvusMetrics.record("insert", vectorData.getSegment(), () -> milvusClient.insert(insertReq));
         } catch (Exception e) {
             log.error("插入向量数据时发生错误", e);
             throw new RuntimeException("插入向量数据失败", e);
         }
     }
 
+    /**
+     * 批量插入向量数据
+     * 按行数和估算字节数切分为多个InsertReq，单个分片失败不影响其他分片
+     * @param rows
+     * @return 逐行结果，与rows一一对应
+     */
+    @Override
+    public List<BatchRowStatus> insertBatch(List<VectorData> rows) {
+        return writeBatch(rows, "插入", "insert", (partitionName, chunk) -> milvusMetrics.record("insert", null,
+                () -> milvusClient.insert(InsertReq.builder()
+                        .collectionName(COLLECTION_NAME)
+                        .partitionName(partitionName)
+                        .data(chunk)
+                        .build())));
+    }
+
+    /**
+     * 插入或更新向量数据，主键存在时原子替换整行
+     * 显式分区模式下行可能跨分区移动，先按主键删除再写入目标分区（非原子）
+     * @param vectorData
+     */
+    @Override
+    public void upsert(VectorData vectorData) {
+        try {
+            String partitionName = ensurePartition(vectorData.getSegment());
+            if (partitionName != null) {
+                deleteById(String.valueOf(vectorData.getId()));
+            }
+            UpsertReq upsertReq = UpsertReq.builder()
+                    .collectionName(COLLECTION_NAME)
+                    .partitionName(partitionName)
+                    .data(Collections.singletonList(toRow(vectorData)))
+                    .build();
+
+            milvusMetrics.recordPayload("upsert", estimateBytes(vectorData));
+            milvusMetrics.record("upsert", vectorData.getSegment(), () -> milvusClient.upsert(upsertReq));
+        } catch (Exception e) {
+            log.error("更新向量数据时发生错误", e);
+            throw new RuntimeException("更新向量数据失败", e);
+        }
+    }
+
+    /**
+     * 批量插入或更新向量数据，分片规则与insertBatch一致
+     * @param rows
+     * @return 逐行结果，与rows一一对应
+     */
+    @Override
+    public List<BatchRowStatus> upsertBatch(List<VectorData> rows) {
+        return writeBatch(rows, "更新", "upsert", (partitionName, chunk) -> {
+            if (partitionName != null) {
+                milvusMetrics.record("delete", null, () -> milvusClient.delete(DeleteReq.builder()
+                        .collectionName(COLLECTION_NAME)
+                        .ids(chunk.stream().map(row -> (Object) row.get("id").getAsLong()).collect(Collectors.toList()))
+                        .build()));
+            }
+            milvusMetrics.record("upsert", null, () -> milvusClient.upsert(UpsertReq.builder()
+                    .collectionName(COLLECTION_NAME)
+                    .partitionName(partitionName)
+                    .data(chunk)
+                    .build()));
+        });
+    }
+
+    /**
+     * 按行数和估算字节数切分后逐片写入
+     * 显式分区模式下先按segment分组，保证每个分片只写一个分区
+     */
+    private List<BatchRowStatus> writeBatch(List<VectorData> rows, String operation, String metricOperation,
+                                            BiConsumer<String, List<JsonObject>> writer) {
+        if (partitionMode() != MilvusProperties.PartitionMode.PARTITION) {
+            return writeChunks(rows, operation, metricOperation, null, writer);
+        }
+
+        Map<Integer, List<Integer>> indexesBySegment = new LinkedHashMap<>();
+        for (int i = 0; i < rows.size(); i++) {
+            indexesBySegment.computeIfAbsent(rows.get(i).getSegment(), key -> new ArrayList<>()).add(i);
+        }
+        BatchRowStatus[] statuses = new BatchRowStatus[rows.size()];
+        indexesBySegment.forEach((segment, indexes) -> {
+            List<VectorData> group = indexes.stream().map(rows::get).collect(Collectors.toList());
+            List<BatchRowStatus> groupStatuses;
+            try {
+                groupStatuses = writeChunks(group, operation, metricOperation, ensurePartition(segment), writer);
+            } catch (Exception e) {
+                log.error("创建分区失败, segment: {}", segment, e);
+                groupStatuses = group.stream()
+                        .map(row -> BatchRowStatus.builder().id(row.getId()).success(false).message(e.getMessage()).build())
+                        .collect(Collectors.toList());
+            }
+            for (int i = 0; i < indexes.size(); i++) {
+                BatchRowStatus status = groupStatuses.get(i);
+                status.setIndex(indexes.get(i));
+                statuses[indexes.get(i)] = status;
+            }
+        });
+        return Arrays.asList(statuses);
+    }
+
+    private List<BatchRowStatus> writeChunks(List<VectorData> rows, String operation, String metricOperation,
+                                             String partitionName, BiConsumer<String, List<JsonObject>> writer) {
+        List<BatchRowStatus> statuses = new ArrayList<>(rows.size());
+        int maxRows = milvusProperties.getInsert().getMaxRows();
+        long maxBytes = milvusProperties.getInsert().getMaxBytes();
+
+        int start = 0;
+        while (start < rows.size()) {
+            int end = start;
+            long bytes = 0;
+            while (end < rows.size() && end - start < maxRows) {
+                long rowBytes = estimateBytes(rows.get(end));
+                if (end > start && bytes + rowBytes > maxBytes) {
+                    break;
+                }
+                bytes += rowBytes;
+                end++;
+            }
+
+            List<VectorData> chunk = rows.subList(start, end);
+            String message = null;
+            try {
+                milvusMetrics.recordPayload(metricOperation, bytes);
+                writer.accept(partitionName, chunk.stream().map(MilvusRepository::toRow).collect(Collectors.toList()));
+                log.debug("批量{}分片成功, 行数: {}, 字节数: {}", operation, chunk.size(), bytes);
+            } catch (Exception e) {
+                log.error("批量{}分片失败, 起始行: {}, 行数: {}", operation, start, chunk.size(), e);
+                message = e.getMessage();
+            }
+            for (int i = start; i < end; i++) {
+                statuses.add(BatchRowStatus.builder()
+                        .index(i)
+                        .id(rows.get(i).getId())
+                        .success(message == null)
+                        .message(message)
+                        .build());
+            }
+            start = end;
+        }
+        return statuses;
+    }
+
+    /**
+     * 估算单行序列化后的字节数
+     */
+    private static long estimateBytes(VectorData row) {
+        long bytes = 16;
+        if (row.getDescription() != null) {
+            bytes += row.getDescription().getBytes(StandardCharsets.UTF_8).length;
+        }
+        if (row.getDescriptionVector() != null) {
+            bytes += row.getDescriptionVector().length * 4L;
+        }
+        return bytes;
+    }
+
     /**
      * 根据IDS删除向量数据
      * @param ids
      */
+    @Override
     public void deleteById(String ids) {
         try {
             DeleteReq deleteReq = DeleteReq.builder()
@@ -143,7 +365,7 @@ public class MilvusRepository {
                             .collect(Collectors.toList()))
                     .build();
             
-           milvusClient.delete(deleteReq);
+            milvusMetrics.record("delete", null, () -> milvusClient.delete(deleteReq));
         } catch (Exception e) {
             log.error("删除向量数据时发生错误", e);
             throw new RuntimeException("删除向量数据失败", e);
@@ -156,20 +378,29 @@ public class MilvusRepository {
      * @param segment
      * @return
      */
-    public List<JSONObject> findBySegment(Long segment) {
+    @Override
+    public List<VectorData> findBySegment(Long segment, ConsistencyLevel consistencyLevel, boolean includeVector) {
         try {
             String collectionName = milvusProperties.getCollection().getName();
             String expr = String.format("segment == %d", segment);
+            List<String> partitionNames = partitionsFor(segment.intValue());
+            if (partitionNames == null) {
+                return new ArrayList<>();
+            }
 
             QueryReq queryReq = QueryReq.builder()
                     .collectionName(collectionName)
+                    .partitionNames(partitionNames)
                     .filter(expr)
-                    .outputFields(Arrays.asList("id", "description", "segment", "description_vector"))
+                    .consistencyLevel(consistencyLevel)
+                    .outputFields(VectorStore.outputFields(null, includeVector))
                     .build();
 
-            QueryResp queryResp = milvusClient.query(queryReq);
+            QueryResp queryResp = milvusMetrics.record("query", segment.intValue(), () -> milvusClient.query(queryReq));
 
-            return queryResp.getQueryResults().size() > 0 ? queryResp.getQueryResults().stream().map(a -> JSONObject.from(a.getEntity())).collect(Collectors.toList()) : new ArrayList<>();
+            return milvusMetrics.recordMapping("query", () -> queryResp.getQueryResults().stream()
+                    .map(result -> toVectorData(result.getEntity()))
+                    .collect(Collectors.toList()));
 
         } catch (Exception e) {
             log.error("查询向量数据时发生错误", e);
@@ -177,29 +408,88 @@ public class MilvusRepository {
         }
     }
 
+    /**
+     * 按segment分页遍历数据，基于QueryIterator逐页回调，内存占用与segment大小无关
+     * @param afterId 游标，只返回id大于该值的数据，为空时从头开始
+     * @param pageConsumer 每页数据回调
+     */
+    @Override
+    public void iterateBySegment(Long segment, Long afterId, ConsistencyLevel consistencyLevel, boolean includeVector,
+                                 int pageSize, Consumer<List<VectorData>> pageConsumer) {
+        List<String> partitionNames = partitionsFor(segment.intValue());
+        if (partitionNames == null) {
+            return;
+        }
+        String expr = afterId != null
+                ? String.format("segment == %d && id > %d", segment, afterId)
+                : String.format("segment == %d", segment);
+
+        QueryIteratorReq iteratorReq = QueryIteratorReq.builder()
+                .collectionName(milvusProperties.getCollection().getName())
+                .partitionNames(partitionNames)
+                .expr(expr)
+                .consistencyLevel(consistencyLevel)
+                .outputFields(VectorStore.outputFields(null, includeVector))
+                .batchSize(pageSize)
+                .build();
+
+        QueryIterator iterator;
+        try {
+            iterator = milvusClient.queryIterator(iteratorReq);
+        } catch (Exception e) {
+            log.error("创建查询迭代器失败, segment: {}", segment, e);
+            throw new RuntimeException("创建查询迭代器失败", e);
+        }
+        try {
+            while (true) {
+                List<QueryResultsWrapper.RowRecord> records = milvusMetrics.record("iterate", segment.intValue(), iterator::next);
+                if (records == null || records.isEmpty()) {
+                    break;
+                }
+                List<VectorData> page = new ArrayList<>(records.size());
+                for (QueryResultsWrapper.RowRecord record : records) {
+                    page.add(toVectorData(record.getFieldValues()));
+                }
+                pageConsumer.accept(page);
+            }
+        } finally {
+            iterator.close();
+        }
+    }
+
     /**
      * 向量搜索
      * @return
      */
-    public List<JSONObject> search(String queryText, int topK, int segment) {
+    @Override
+    public List<VectorSearchResult> search(float[] queryVector, int topK, List<Integer> segments, Map<String, Object> searchParams,
+                                           ConsistencyLevel consistencyLevel, List<String> fields, boolean includeVector) {
         try {
-            List<Float> queryVector = getVector(queryText);
-            String expr = String.format("segment == %d", segment);
+            String expr = segmentFilter(segments);
+            List<String> partitionNames = partitionsFor(segments);
+            if (partitionNames == null) {
+                return new ArrayList<>();
+            }
 
             // 构建查询数据
             SearchReq searchReq = SearchReq.builder()
                     .filter(expr)
                     .collectionName(COLLECTION_NAME)
+                    .partitionNames(partitionNames)
                     .data(Collections.singletonList(new FloatVec(queryVector)))
                     .topK(topK)
-                    .outputFields(Arrays.asList("id", "description", "segment", "description_vector"))
+                    .metricType(metricType())
+                    .searchParams(mergeSearchParams(searchParams))
+                    .consistencyLevel(consistencyLevel)
+                    .outputFields(VectorStore.outputFields(fields, includeVector))
                     .build();
 
             // 执行搜索
-            SearchResp search = milvusClient.search(searchReq);
+            Integer metricSegment = segments != null && segments.size() == 1 ? segments.get(0) : null;
+            SearchResp search = milvusMetrics.record("search", metricSegment, () -> milvusClient.search(searchReq));
 
-            List<JSONObject> ret = search.getSearchResults().get(0)
-                    .stream().map(item -> JSONObject.from(item)).collect(Collectors.toList());
+            List<VectorSearchResult> ret = milvusMetrics.recordMapping("search", () -> search.getSearchResults().get(0)
+                    .stream().map(MilvusRepository::toSearchResult).collect(Collectors.toList()));
 
             return ret;
             
@@ -209,26 +499,342 @@ public class MilvusRepository {
         }
     }
 
+    @Override
+    public List<VectorSearchResult> hybridSearch(float[] queryVector, String queryText, int topK, List<Integer> segments,
+                                                 Map<String, Object> searchParams, ConsistencyLevel consistencyLevel,
+                                                 List<String> fields, boolean includeVector,
+                                                 MilvusProperties.RankerType rankerType) {
+        MilvusProperties.Hybrid hybrid = milvusProperties.getHybrid();
+        if (!Boolean.TRUE.equals(hybrid.getEnabled())) {
+            throw new IllegalStateException("未启用混合检索，请配置 milvus.hybrid.enabled 并重新初始化集合");
+        }
+        try {
+            String expr = segmentFilter(segments);
+            List<String> partitionNames = partitionsFor(segments);
+            if (partitionNames == null) {
+                return new ArrayList<>();
+            }
+
+            AnnSearchReq denseReq = AnnSearchReq.builder()
+                    .vectorFieldName("description_vector")
+                    .vectors(Collections.singletonList(new FloatVec(queryVector)))
+                    .metricType(metricType())
+                    .params(JSON.toJSONString(mergeSearchParams(searchParams)))
+                    .expr(expr)
+                    .topK(topK)
+                    .build();
+            AnnSearchReq sparseReq = AnnSearchReq.builder()
+                    .vectorFieldName(SPARSE_FIELD)
+                    .vectors(Collections.singletonList(new EmbeddedText(queryText)))
+                    .metricType(IndexParam.MetricType.BM25)
+                    .params(JSON.toJSONString(Collections.singletonMap("drop_ratio_search", hybrid.getDropRatioSearch())))
+                    .expr(expr)
+                    .topK(topK)
+                    .build();
+
+            MilvusProperties.RankerType type = rankerType != null ? rankerType : hybrid.getRanker();
+            BaseRanker ranker = type == MilvusProperties.RankerType.WEIGHTED
+                    ? new WeightedRanker(Arrays.asList(hybrid.getDenseWeight(), hybrid.getSparseWeight()))
+                    : new RRFRanker(hybrid.getRrfK());
+
+            HybridSearchReq hybridSearchReq = HybridSearchReq.builder()
+                    .collectionName(COLLECTION_NAME)
+                    .partitionNames(partitionNames)
+                    .searchRequests(Arrays.asList(denseReq, sparseReq))
+                    .ranker(ranker)
+                    .topK(topK)
+                    .consistencyLevel(consistencyLevel)
+                    .outFields(VectorStore.outputFields(fields, includeVector))
+                    .build();
+
+            Integer metricSegment = segments != null && segments.size() == 1 ? segments.get(0) : null;
+            SearchResp search = milvusMetrics.record("hybrid_search", metricSegment,
+                    () -> milvusClient.hybridSearch(hybridSearchReq));
+
+            return milvusMetrics.recordMapping("hybrid_search", () -> search.getSearchResults().get(0)
+                    .stream().map(MilvusRepository::toSearchResult).collect(Collectors.toList()));
+        } catch (Exception e) {
+            log.error("混合检索时发生错误", e);
+            throw new RuntimeException("混合检索失败", e);
+        }
+    }
+
     /**
      * 根据ID查询向量数据
      */
-    public JSONObject findById(String id) {
+    @Override
+    public VectorData findById(String id) {
         try {
             String expr = String.format("id == %d", Long.parseLong(id));
 
             QueryReq queryReq = QueryReq.builder()
                     .collectionName(COLLECTION_NAME)
                     .filter(expr)
+                    .consistencyLevel(ConsistencyLevel.SESSION)
+                    .outputFields(Arrays.asList("id", "description", "segment", "description_vector"))
+                    .build();
+
+            QueryResp queryResp = milvusMetrics.record("get", null, () -> milvusClient.query(queryReq));
+
+            return queryResp.getQueryResults().size() > 0 ? toVectorData(queryResp.getQueryResults().get(0).getEntity()) : null;
+
+        } catch (Exception e) {
+            log.error("查询向量数据时发生错误", e);
+            throw new RuntimeException("查询向量数据失败", e);
+        }
+    }
+
+    /**
+     * 根据ID列表批量查询向量数据（含向量）
+     */
+    @Override
+    public List<VectorData> findByIds(List<Long> ids) {
+        try {
+            if (ids.isEmpty()) {
+                return new ArrayList<>();
+            }
+            QueryReq queryReq = QueryReq.builder()
+                    .collectionName(COLLECTION_NAME)
+                    .ids(new ArrayList<>(ids))
+                    .consistencyLevel(ConsistencyLevel.SESSION)
                     .outputFields(Arrays.asList("id", "description", "segment", "description_vector"))
                     .build();
 
-            QueryResp queryResp = milvusClient.query(queryReq);
+            return milvusMetrics.record("get", null, () -> milvusClient.query(queryReq)).getQueryResults().stream()
+                    .map(result -> toVectorData(result.getEntity()))
+                    .collect(Collectors.toList());
+        } catch (Exception e) {
+            log.error("查询向量数据时发生错误", e);
+            throw new RuntimeException("查询向量数据失败", e);
+        }
+    }
 
-            return queryResp.getQueryResults().size() > 0 ? JSONObject.from(queryResp.getQueryResults().get(0)) : null;
+    /**
+     * 查询ID对应的segment，不返回向量
+     */
+    @Override
+    public Set<Integer> findSegmentsByIds(List<Long> ids) {
+        try {
+            if (ids.isEmpty()) {
+                return new HashSet<>();
+            }
+            QueryReq queryReq = QueryReq.builder()
+                    .collectionName(COLLECTION_NAME)
+                    .ids(new ArrayList<>(ids))
+                    .consistencyLevel(ConsistencyLevel.SESSION)
+                    .outputFields(Arrays.asList("id", "segment"))
+                    .build();
 
+            return milvusMetrics.record("get", null, () -> milvusClient.query(queryReq)).getQueryResults().stream()
+                    .map(result -> toVectorData(result.getEntity()).getSegment())
+                    .collect(Collectors.toSet());
         } catch (Exception e) {
             log.error("查询向量数据时发生错误", e);
             throw new RuntimeException("查询向量数据失败", e);
         }
     }
+
+    /**
+     * 集合默认一致性级别，未配置时为STRONG
+     */
+    private ConsistencyLevel collectionConsistencyLevel() {
+        String level = milvusProperties.getCollection().getConsistencyLevel();
+        return level != null ? ConsistencyLevel.valueOf(level.toUpperCase()) : ConsistencyLevel.STRONG;
+    }
+
+    private MilvusProperties.PartitionMode partitionMode() {
+        return milvusProperties.getCollection().getPartitionMode();
+    }
+
+    private String partitionName(int segment) {
+        return milvusProperties.getCollection().getPartitionPrefix() + segment;
+    }
+
+    /**
+     * 显式分区模式下确保segment对应的分区存在，返回分区名；其他模式返回null
+     */
+    private String ensurePartition(Integer segment) {
+        if (partitionMode() != MilvusProperties.PartitionMode.PARTITION || segment == null) {
+            return null;
+        }
+        String partitionName = partitionName(segment);
+        if (knownPartitions.contains(partitionName)) {
+            return partitionName;
+        }
+        // 使用ReentrantLock，在虚拟线程上等待gRPC调用时不钉住载体线程
+        partitionLock.lock();
+        try {
+            if (!knownPartitions.contains(partitionName)) {
+                Boolean exist = milvusClient.hasPartition(HasPartitionReq.builder()
+                        .collectionName(COLLECTION_NAME)
+                        .partitionName(partitionName)
+                        .build());
+                if (!exist) {
+                    milvusClient.createPartition(CreatePartitionReq.builder()
+                            .collectionName(COLLECTION_NAME)
+                            .partitionName(partitionName)
+                            .build());
+                    log.info("已创建分区: {}", partitionName);
+                }
+                knownPartitions.add(partitionName);
+            }
+        } finally {
+            partitionLock.unlock();
+        }
+        return partitionName;
+    }
+
+    /**
+     * segment过滤表达式：单个段使用 ==，多个段使用 in
+     */
+    private static String segmentFilter(List<Integer> segments) {
+        if (segments == null || segments.isEmpty()) {
+            return "";
+        }
+        if (segments.size() == 1) {
+            return String.format("segment == %d", segments.get(0));
+        }
+        return "segment in " + segments;
+    }
+
+    /**
+     * 多个段对应的已存在分区，全部不存在时返回null
+     */
+    private List<String> partitionsFor(List<Integer> segments) {
+        if (partitionMode() != MilvusProperties.PartitionMode.PARTITION || segments == null || segments.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<String> partitionNames = new ArrayList<>();
+        for (Integer segment : segments) {
+            List<String> names = partitionsFor(segment);
+            if (names != null) {
+                partitionNames.addAll(names);
+            }
+        }
+        return partitionNames.isEmpty() ? null : partitionNames;
+    }
+
+    /**
+     * 读请求裁剪到的分区列表
+     * 显式分区模式下返回segment对应分区，分区不存在时返回null表示无数据；
+     * 其他模式返回空列表（分区键模式由Milvus根据过滤表达式自动裁剪）
+     */
+    private List<String> partitionsFor(Integer segment) {
+        if (partitionMode() != MilvusProperties.PartitionMode.PARTITION || segment == null) {
+            return new ArrayList<>();
+        }
+        String partitionName = partitionName(segment);
+        if (!knownPartitions.contains(partitionName)) {
+            Boolean exist = milvusClient.hasPartition(HasPartitionReq.builder()
+                    .collectionName(COLLECTION_NAME)
+                    .partitionName(partitionName)
+                    .build());
+            if (!exist) {
+                return null;
+            }
+            knownPartitions.add(partitionName);
+        }
+        return Collections.singletonList(partitionName);
+    }
+
+    /**
+     * 配置的向量索引类型，未配置时为FLAT
+     */
+    private IndexParam.IndexType indexType() {
+        String indexType = milvusProperties.getCollection().getFields().getDescriptionVector().getIndexType();
+        return indexType != null ? IndexParam.IndexType.valueOf(indexType.toUpperCase()) : IndexParam.IndexType.FLAT;
+    }
+
+    /**
+     * 配置的向量度量类型，未配置时为COSINE
+     */
+    private IndexParam.MetricType metricType() {
+        String metricType = milvusProperties.getCollection().getFields().getDescriptionVector().getMetricType();
+        return metricType != null ? IndexParam.MetricType.valueOf(metricType.toUpperCase()) : IndexParam.MetricType.COSINE;
+    }
+
+    /**
+     * 合并默认搜索参数与请求搜索参数，请求参数优先
+     */
+    private Map<String, Object> mergeSearchParams(Map<String, Object> searchParams) {
+        Map<String, Object> merged = normalizeParams(milvusProperties.getCollection().getFields().getDescriptionVector().getSearchParams());
+        if (searchParams != null) {
+            merged.putAll(searchParams);
+        }
+        return merged;
+    }
+
+    /**
+     * 配置文件绑定的参数值为字符串，数值参数转换为数字类型
+     */
+    private static Map<String, Object> normalizeParams(Map<String, Object> params) {
+        Map<String, Object> normalized = new HashMap<>();
+        params.forEach((key, value) -> {
+            if (value instanceof String && ((String) value).matches("-?\\d+")) {
+                value = Long.parseLong((String) value);
+            } else if (value instanceof String && ((String) value).matches("-?\\d*\\.\\d+")) {
+                value = Double.parseDouble((String) value);
+            }
+            normalized.put(key, value);
+        });
+        return normalized;
+    }
+
+    /**
+     * 实体转换为Milvus行数据（包内可见，供基准测试使用）
+     */
+    static JsonObject toRow(VectorData vectorData) {
+        JsonObject row = new JsonObject();
+        row.addProperty("id", vectorData.getId());
+        row.addProperty("description", vectorData.getDescription());
+        row.addProperty("segment", vectorData.getSegment());
+        float[] vector = vectorData.getDescriptionVector();
+        JsonArray array = new JsonArray(vector.length);
+        for (float value : vector) {
+            array.add(value);
+        }
+        row.add("description_vector", array);
+        return row;
+    }
+
+    /**
+     * Milvus查询结果转换为实体
+     */
+    private static VectorData toVectorData(Map<String, Object> entity) {
+        Object segment = entity.get("segment");
+        return VectorData.builder()
+                .id(((Number) entity.get("id")).longValue())
+                .description((String) entity.get("description"))
+                .segment(segment != null ? ((Number) segment).intValue() : null)
+                .descriptionVector(toFloatArray(entity.get("description_vector")))
+                .build();
+    }
+
+    /**
+     * 搜索结果转换为DTO（包内可见，供基准测试使用）
+     */
+    static VectorSearchResult toSearchResult(SearchResp.SearchResult item) {
+        Map<String, Object> entity = item.getEntity();
+        Object segment = entity.get("segment");
+        return VectorSearchResult.builder()
+                .id(((Number) item.getId()).longValue())
+                .score(item.getScore())
+                .description((String) entity.get("description"))
+                .segment(segment != null ? ((Number) segment).intValue() : null)
+                .descriptionVector(toFloatArray(entity.get("description_vector")))
+                .build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static float[] toFloatArray(Object value) {
+        if (value == null) {
+            return null;
+        }
+        List<Float> list = (List<Float>) value;
+        float[] vector = new float[list.size()];
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] = list.get(i);
+        }
+        return vector;
+    }
 }
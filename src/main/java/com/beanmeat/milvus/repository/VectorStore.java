@@ -0,0 +1,131 @@
+package com.beanmeat.milvus.repository;
+
+import com.beanmeat.milvus.config.MilvusProperties;
+import com.beanmeat.milvus.dto.BatchRowStatus;
+import com.beanmeat.milvus.dto.VectorSearchResult;
+import com.beanmeat.milvus.entity.VectorData;
+import io.milvus.v2.common.ConsistencyLevel;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * 向量存储接口
+ *
+ * 默认实现为 {@link MilvusRepository}；milvus.store-type=MEMORY 时使用进程内的 {@link InMemoryVectorStore}，
+ * 用于无外部依赖的压测和联调。
+ */
+public interface VectorStore {
+
+    /**
+     * 可选的标量返回字段
+     */
+    List<String> SCALAR_FIELDS = Arrays.asList("description", "segment");
+
+    /**
+     * 创建集合，已存在时删除重建
+     */
+    void createCollection();
+
+    /**
+     * 插入向量数据
+     */
+    void insert(VectorData vectorData);
+
+    /**
+     * 批量插入向量数据
+     * @return 逐行结果，与rows一一对应
+     */
+    List<BatchRowStatus> insertBatch(List<VectorData> rows);
+
+    /**
+     * 插入或更新向量数据，主键存在时替换整行
+     */
+    void upsert(VectorData vectorData);
+
+    /**
+     * 批量插入或更新向量数据
+     * @return 逐行结果，与rows一一对应
+     */
+    List<BatchRowStatus> upsertBatch(List<VectorData> rows);
+
+    /**
+     * 根据逗号分隔的ID删除向量数据
+     */
+    void deleteById(String ids);
+
+    /**
+     * 根据segment查询向量数据
+     */
+    List<VectorData> findBySegment(Long segment, ConsistencyLevel consistencyLevel, boolean includeVector);
+
+    /**
+     * 按segment以id升序分页遍历数据
+     * @param afterId 游标，只返回id大于该值的数据，为空时从头开始
+     * @param pageConsumer 每页数据回调
+     */
+    void iterateBySegment(Long segment, Long afterId, ConsistencyLevel consistencyLevel, boolean includeVector,
+                          int pageSize, Consumer<List<VectorData>> pageConsumer);
+
+    /**
+     * 向量搜索
+     * @param segments 限定的segment，为空时搜索全部segment
+     * @param fields 返回的标量字段，为空时返回全部标量字段
+     */
+    List<VectorSearchResult> search(float[] queryVector, int topK, List<Integer> segments, Map<String, Object> searchParams,
+                                    ConsistencyLevel consistencyLevel, List<String> fields, boolean includeVector);
+
+    /**
+     * 稠密向量 + 稀疏向量（BM25）混合检索，两路结果按重排策略融合
+     * @param queryText 查询文本，用于稀疏检索
+     * @param rankerType 重排策略，为空时使用默认配置
+     */
+    List<VectorSearchResult> hybridSearch(float[] queryVector, String queryText, int topK, List<Integer> segments,
+                                          Map<String, Object> searchParams, ConsistencyLevel consistencyLevel,
+                                          List<String> fields, boolean includeVector,
+                                          MilvusProperties.RankerType rankerType);
+
+    /**
+     * 根据ID查询向量数据（含向量），不存在时返回null
+     */
+    VectorData findById(String id);
+
+    /**
+     * 根据ID列表批量查询向量数据（含向量）
+     */
+    List<VectorData> findByIds(List<Long> ids);
+
+    /**
+     * 查询ID对应的segment
+     */
+    Set<Integer> findSegmentsByIds(List<Long> ids);
+
+    /**
+     * 计算返回字段，默认只返回标量字段，向量字段需显式请求
+     * @param fields 请求的标量字段，为空时返回全部标量字段
+     */
+    static List<String> outputFields(List<String> fields, boolean includeVector) {
+        List<String> outputFields = new ArrayList<>();
+        outputFields.add("id");
+        if (fields == null || fields.isEmpty()) {
+            outputFields.addAll(SCALAR_FIELDS);
+        } else {
+            for (String field : fields) {
+                if (!SCALAR_FIELDS.contains(field)) {
+                    throw new IllegalArgumentException("不支持的返回字段: " + field);
+                }
+                if (!outputFields.contains(field)) {
+                    outputFields.add(field);
+                }
+            }
+        }
+        if (includeVector) {
+            outputFields.add("description_vector");
+        }
+        return outputFields;
+    }
+}
@@ -0,0 +1,149 @@
+package com.beanmeat.milvus.service;
+
+import com.beanmeat.milvus.config.MilvusProperties;
+import com.beanmeat.milvus.dto.VectorSearchRequest;
+import com.beanmeat.milvus.dto.VectorSearchResult;
+import com.beanmeat.milvus.repository.VectorStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * 多段搜索
+ *
+ * IN_FILTER：一次搜索，过滤条件 segment in [...]；
+ * FAN_OUT：每个段单独搜索并行执行（分区模式下每次只搜一个分区），再用大小为topK的堆合并结果。
+ * 混合检索的RRF分数只在单次搜索内可比（每次搜索的第一名都约为1/(k+1)），HYBRID模式下始终使用IN_FILTER。
+ * 两种策略的耗时记录在 search.multi_segment 计时器中，按策略和段数分档打标签，便于对比。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MultiSegmentSearcher {
+
+    private final VectorStore vectorStore;
+    private final MilvusProperties milvusProperties;
+    private final MeterRegistry meterRegistry;
+    private final ExecutorService serviceExecutor;
+
+    /**
+     * 执行搜索，单段或不限段时直接搜索
+     */
+    public List<VectorSearchResult> search(float[] queryVector, VectorSearchRequest request) {
+        List<Integer> segments = request.resolveSegments();
+        if (segments == null || segments.size() == 1) {
+            return searchSegments(queryVector, request, segments);
+        }
+
+        MilvusProperties.MultiSegmentStrategy strategy = resolveMode(request) == MilvusProperties.SearchMode.HYBRID
+                ? MilvusProperties.MultiSegmentStrategy.IN_FILTER
+                : request.getSegmentStrategy() != null
+                        ? request.getSegmentStrategy()
+                        : milvusProperties.getSearch().getMultiSegmentStrategy();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            List<VectorSearchResult> results = strategy == MilvusProperties.MultiSegmentStrategy.FAN_OUT
+                    ? fanOut(queryVector, request, segments)
+                    : searchSegments(queryVector, request, segments);
+            outcome = "success";
+            return results;
+        } finally {
+            sample.stop(Timer.builder("search.multi_segment")
+                    .description("多段搜索耗时")
+                    .tags("strategy", strategy.name(), "segments", segmentCountBucket(segments.size()),
+                            "outcome", outcome)
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .register(meterRegistry));
+        }
+    }
+
+    private List<VectorSearchResult> searchSegments(float[] queryVector, VectorSearchRequest request, List<Integer> segments) {
+        if (resolveMode(request) == MilvusProperties.SearchMode.HYBRID) {
+            return vectorStore.hybridSearch(queryVector, request.getQueryText(), request.getTopK(), segments,
+                    request.toSearchParams(), request.getConsistencyLevel(), request.getOutputFields(),
+                    Boolean.TRUE.equals(request.getIncludeVector()), request.getRanker());
+        }
+        return vectorStore.search(queryVector, request.getTopK(), segments, request.toSearchParams(),
+                request.getConsistencyLevel(), request.getOutputFields(), Boolean.TRUE.equals(request.getIncludeVector()));
+    }
+
+    private MilvusProperties.SearchMode resolveMode(VectorSearchRequest request) {
+        return request.getSearchMode() != null
+                ? request.getSearchMode()
+                : milvusProperties.getHybrid().getDefaultMode();
+    }
+
+    private List<VectorSearchResult> fanOut(float[] queryVector, VectorSearchRequest request, List<Integer> segments) {
+        List<CompletableFuture<List<VectorSearchResult>>> futures = new ArrayList<>(segments.size());
+        for (Integer segment : segments) {
+            futures.add(CompletableFuture.supplyAsync(
+                    () -> searchSegments(queryVector, request, Collections.singletonList(segment)), serviceExecutor));
+        }
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+        } catch (CompletionException e) {
+            // CompletableFuture无法中断执行中的任务，其余段的搜索会继续执行完，结果被丢弃
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+        List<List<VectorSearchResult>> partials = new ArrayList<>(futures.size());
+        futures.forEach(future -> partials.add(future.join()));
+        return mergeTopK(partials, request.getTopK(), smallerIsBetter());
+    }
+
+    /**
+     * 用大小为topK的堆合并多个有序结果
+     * @param smallerIsBetter 距离类度量（L2）分数越小越相似
+     */
+    static List<VectorSearchResult> mergeTopK(List<List<VectorSearchResult>> partials, int topK, boolean smallerIsBetter) {
+        Comparator<VectorSearchResult> worstFirst = Comparator.comparing(VectorSearchResult::getScore);
+        if (smallerIsBetter) {
+            worstFirst = worstFirst.reversed();
+        }
+        PriorityQueue<VectorSearchResult> heap = new PriorityQueue<>(topK + 1, worstFirst);
+        for (List<VectorSearchResult> partial : partials) {
+            for (VectorSearchResult result : partial) {
+                if (heap.size() < topK) {
+                    heap.add(result);
+                } else if (worstFirst.compare(result, heap.peek()) > 0) {
+                    heap.poll();
+                    heap.add(result);
+                }
+            }
+        }
+        List<VectorSearchResult> merged = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            merged.add(heap.poll());
+        }
+        Collections.reverse(merged);
+        return merged;
+    }
+
+    private boolean smallerIsBetter() {
+        String metricType = milvusProperties.getCollection().getFields().getDescriptionVector().getMetricType();
+        return "L2".equalsIgnoreCase(metricType);
+    }
+
+    private static String segmentCountBucket(int count) {
+        if (count <= 2) {
+            return String.valueOf(count);
+        }
+        if (count <= 4) {
+            return "3-4";
+        }
+        if (count <= 8) {
+            return "5-8";
+        }
+        if (count <= 16) {
+            return "9-16";
+        }
+        return "17+";
+    }
+}
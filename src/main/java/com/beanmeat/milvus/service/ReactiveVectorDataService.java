@@ -0,0 +1,180 @@
+package com.beanmeat.milvus.service;
+
+import com.beanmeat.milvus.dto.BatchResponse;
+import com.beanmeat.milvus.dto.VectorDTO;
+import com.beanmeat.milvus.dto.VectorSearchRequest;
+import com.beanmeat.milvus.dto.VectorSearchResult;
+import com.beanmeat.milvus.embedding.EmbeddingClient;
+import com.beanmeat.milvus.entity.VectorData;
+import com.beanmeat.milvus.ingest.IngestBuffer;
+import io.milvus.v2.common.ConsistencyLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * 向量数据响应式业务逻辑层
+ *
+ * 向量化通过 embedAsync 非阻塞完成，不占用请求线程；Milvus SDK为阻塞调用，统一在有界调度器 milvusScheduler 上执行。
+ * 搜索与同步接口共用搜索结果缓存与请求合并；批量、更新、删除等以写入为主的操作直接把同步实现转移到调度器执行。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ReactiveVectorDataService {
+
+    private final VectorDataService vectorDataService;
+    private final EmbeddingClient embeddingClient;
+    private final SearchResultCache searchResultCache;
+    private final MultiSegmentSearcher multiSegmentSearcher;
+    private final IngestBuffer ingestBuffer;
+    private final Scheduler milvusScheduler;
+
+    /**
+     * 创建向量数据，返回的请求中带有分配的ID
+     */
+    public Mono<VectorDTO> createVectorData(VectorDTO request) {
+        if (ingestBuffer.isEnabled()) {
+            return Mono.fromCallable(() -> vectorDataService.createVectorData(request))
+                    .subscribeOn(milvusScheduler);
+        }
+        return Mono.fromFuture(() -> embeddingClient.embedAsync(request.getDescription()))
+                .publishOn(milvusScheduler)
+                .map(vector -> vectorDataService.insertVectorData(request, vector));
+    }
+
+    /**
+     * 批量创建向量数据
+     */
+    public Mono<BatchResponse> createVectorDataBatch(List<VectorDTO> requests) {
+        return Mono.fromCallable(() -> vectorDataService.createVectorDataBatch(requests))
+                .subscribeOn(milvusScheduler);
+    }
+
+    /**
+     * 更新向量数据
+     */
+    public Mono<Void> updateVectorData(VectorDTO request) {
+        return Mono.<Void>fromRunnable(() -> vectorDataService.updateVectorData(request))
+                .subscribeOn(milvusScheduler);
+    }
+
+    /**
+     * 批量更新向量数据
+     */
+    public Mono<BatchResponse> updateVectorDataBatch(List<VectorDTO> requests) {
+        return Mono.fromCallable(() -> vectorDataService.updateVectorDataBatch(requests))
+                .subscribeOn(milvusScheduler);
+    }
+
+    /**
+     * 删除向量数据
+     */
+    public Mono<Void> deleteVectorData(String ids) {
+        return Mono.<Void>fromRunnable(() -> vectorDataService.deleteVectorData(ids))
+                .subscribeOn(milvusScheduler);
+    }
+
+    /**
+     * 根据segment获取向量数据
+     * 在调度器上按 milvus.export.page-size 分页遍历，每取到一页立即输出；下游无需求时暂停取下一页，
+     * 内存中最多缓存一页，取消订阅后停止遍历
+     */
+    public Flux<VectorData> getVectorDataBySegment(Long segment, ConsistencyLevel consistencyLevel, boolean includeVector) {
+        int pageSize = vectorDataService.resolveExportPageSize(null);
+        return Flux.create(sink -> {
+            Demand demand = new Demand();
+            sink.onRequest(n -> demand.signal());
+            sink.onDispose(demand::cancel);
+            milvusScheduler.schedule(() -> {
+                try {
+                    vectorDataService.exportVectorDataBySegment(segment, null, consistencyLevel, includeVector, pageSize,
+                            page -> {
+                                demand.await(sink::requestedFromDownstream);
+                                page.forEach(sink::next);
+                            });
+                    sink.complete();
+                } catch (CancellationException e) {
+                    log.debug("按segment获取向量数据已取消, segment: {}", segment);
+                } catch (Exception e) {
+                    sink.error(e);
+                }
+            });
+        });
+    }
+
+    /**
+     * 向量相似度搜索
+     */
+    public Mono<List<VectorSearchResult>> searchVectorData(VectorSearchRequest request) {
+        return Mono.fromFuture(() -> searchResultCache.getOrSearchAsync(searchResultCache.key(request),
+                request.getConsistencyLevel(),
+                () -> Mono.fromFuture(() -> embeddingClient.embedAsync(request.getQueryText()))
+                        .publishOn(milvusScheduler)
+                        .map(vector -> multiSegmentSearcher.search(vector, request))
+                        .toFuture()));
+    }
+
+    /**
+     * 向量相似度搜索，结果逐条输出
+     */
+    public Flux<VectorSearchResult> searchVectorDataStream(VectorSearchRequest request) {
+        return searchVectorData(request).flatMapIterable(results -> results);
+    }
+
+    /**
+     * 分页遍历与下游需求之间的协调：没有需求时阻塞遍历线程，取消后以CancellationException结束遍历
+     */
+    private static class Demand {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition changed = lock.newCondition();
+        private boolean cancelled;
+
+        void signal() {
+            lock.lock();
+            try {
+                changed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void cancel() {
+            lock.lock();
+            try {
+                cancelled = true;
+                changed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void await(LongSupplier requested) {
+            boolean stop;
+            lock.lock();
+            try {
+                while (!cancelled && requested.getAsLong() <= 0) {
+                    changed.await();
+                }
+                stop = cancelled;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                stop = true;
+            } finally {
+                lock.unlock();
+            }
+            if (stop) {
+                throw new CancellationException();
+            }
+        }
+    }
+}
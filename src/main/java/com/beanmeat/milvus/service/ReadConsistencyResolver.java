@@ -0,0 +1,63 @@
+package com.beanmeat.milvus.service;
+
+import com.beanmeat.milvus.config.MilvusProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.milvus.v2.common.ConsistencyLevel;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * 读请求一致性级别解析，按客户端跟踪会话
+ *
+ * Milvus SDK的SESSION一致性以本进程对集合的最后一次写入为准，会等待所有客户端的写入可见。
+ * 这里按客户端（X-Client-Id）记录最近写入时间：未指定级别的读请求，会话窗口内有写入的客户端使用SESSION，
+ * 保证读己之写；其他客户端使用默认的BOUNDED，不必等待别人的写入。请求显式指定的级别不做调整。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ReadConsistencyResolver {
+
+    private final MilvusProperties milvusProperties;
+
+    private Cache<String, Long> recentWriters;
+
+    @PostConstruct
+    public void init() {
+        MilvusProperties.Read config = milvusProperties.getRead();
+        recentWriters = Caffeine.newBuilder()
+                .maximumSize(config.getMaxTrackedClients())
+                .expireAfterWrite(config.getSessionWindow())
+                .build();
+    }
+
+    /**
+     * 记录客户端写入
+     */
+    public void recordWrite(String clientId) {
+        if (clientId != null && !clientId.isEmpty()) {
+            recentWriters.put(clientId, System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * 解析读请求的一致性级别
+     * 请求显式指定的级别原样使用；未指定时使用默认级别，默认为BOUNDED且客户端在会话窗口内有写入时升级为SESSION
+     * @param requested 请求指定的级别，为null时使用默认级别
+     * @param clientId 客户端标识，可为null
+     */
+    public ConsistencyLevel resolve(ConsistencyLevel requested, String clientId) {
+        if (requested != null) {
+            return requested;
+        }
+        ConsistencyLevel level = milvusProperties.getRead().getDefaultConsistencyLevel();
+        if (level == ConsistencyLevel.BOUNDED && clientId != null && !clientId.isEmpty()
+                && recentWriters.getIfPresent(clientId) != null) {
+            return ConsistencyLevel.SESSION;
+        }
+        return level;
+    }
+}
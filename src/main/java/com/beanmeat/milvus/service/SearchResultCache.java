@@ -0,0 +1,216 @@
+package com.beanmeat.milvus.service;
+
+import com.beanmeat.milvus.config.MilvusProperties;
+import com.beanmeat.milvus.dto.VectorSearchRequest;
+import com.beanmeat.milvus.dto.VectorSearchResult;
+import com.beanmeat.milvus.util.SingleFlight;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.milvus.v2.common.ConsistencyLevel;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 搜索结果缓存，按segment感知写入失效
+ *
+ * 缓存键包含查询所在segment的写入代数（多段时为各段代数之和）：segment有写入时代数加一，旧条目不再命中，随容量与TTL淘汰。
+ * 不指定segment的搜索使用全局代数，任意写入都会使其失效。
+ * 非STRONG读在最近一次写入后的稳定期内不写缓存，避免把尚未可见写入的结果缓存下来。
+ * 缓存键与一致性级别都相同的并发未命中合并为一次搜索（milvus.search.coalescing）。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SearchResultCache {
+
+    private final MilvusProperties milvusProperties;
+    private final MeterRegistry meterRegistry;
+
+    private Cache<Key, List<VectorSearchResult>> cache;
+    private SingleFlight<List<Object>, List<VectorSearchResult>> flights;
+
+    /**
+     * 只在写入路径创建，读取路径对从未写入的segment使用 {@link #UNWRITTEN}，避免按请求中的任意segment无限增长
+     */
+    private final Map<Integer, Generation> segmentGenerations = new ConcurrentHashMap<>();
+    private final Generation globalGeneration = new Generation();
+
+    private static final Generation UNWRITTEN = new Generation();
+
+    @PostConstruct
+    public void init() {
+        if (Boolean.TRUE.equals(milvusProperties.getSearch().getCoalescing())) {
+            flights = new SingleFlight<>("search", meterRegistry);
+        }
+        MilvusProperties.SearchCache config = milvusProperties.getSearchCache();
+        if (!Boolean.TRUE.equals(config.getEnabled())) {
+            log.info("搜索结果缓存未启用");
+            return;
+        }
+        cache = Caffeine.newBuilder()
+                .maximumSize(config.getMaximumSize())
+                .expireAfterWrite(config.getTtl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "search");
+        log.info("搜索结果缓存初始化完成, 上限: {}, TTL: {}", config.getMaximumSize(), config.getTtl());
+    }
+
+    /**
+     * 根据搜索请求计算缓存键，键中包含当前写入代数
+     */
+    public Key key(VectorSearchRequest request) {
+        List<Integer> segments = request.resolveSegments();
+        long generation = 0;
+        if (segments == null) {
+            generation = globalGeneration.value.get();
+        } else {
+            for (Integer segment : segments) {
+                generation += currentGeneration(segment).value.get();
+            }
+        }
+        List<String> outputFields = request.getOutputFields() != null
+                ? new ArrayList<>(new TreeSet<>(request.getOutputFields()))
+                : Collections.emptyList();
+        return new Key(normalize(request.getQueryText()), request.getTopK(), segments, outputFields,
+                Boolean.TRUE.equals(request.getIncludeVector()), new TreeMap<>(request.toSearchParams()),
+                request.getSearchMode(), request.getRanker(), generation);
+    }
+
+    /**
+     * 查询缓存，未命中或未启用返回null
+     */
+    public List<VectorSearchResult> get(Key key) {
+        return cache != null ? cache.getIfPresent(key) : null;
+    }
+
+    /**
+     * 查询缓存，未命中时执行搜索并写入缓存
+     * 键与一致性级别相同的并发未命中共享同一次搜索，键中的写入代数保证写入后发起的搜索不会复用写入前的结果
+     */
+    public List<VectorSearchResult> getOrSearch(Key key, ConsistencyLevel consistencyLevel,
+                                                Supplier<List<VectorSearchResult>> search) {
+        List<VectorSearchResult> cached = get(key);
+        if (cached != null) {
+            return cached;
+        }
+        Supplier<List<VectorSearchResult>> loader = () -> {
+            List<VectorSearchResult> results = search.get();
+            put(key, results, consistencyLevel);
+            return results;
+        };
+        return flights != null ? flights.execute(Arrays.asList(key, consistencyLevel), loader) : loader.get();
+    }
+
+    /**
+     * {@link #getOrSearch} 的异步版本，search返回在途搜索的Future
+     */
+    public CompletableFuture<List<VectorSearchResult>> getOrSearchAsync(Key key, ConsistencyLevel consistencyLevel,
+                                                                        Supplier<CompletableFuture<List<VectorSearchResult>>> search) {
+        List<VectorSearchResult> cached = get(key);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        Supplier<CompletableFuture<List<VectorSearchResult>>> loader = () -> search.get()
+                .thenApply(results -> {
+                    put(key, results, consistencyLevel);
+                    return results;
+                });
+        return flights != null ? flights.executeAsync(Arrays.asList(key, consistencyLevel), loader) : loader.get();
+    }
+
+    /**
+     * 写入缓存
+     * @param consistencyLevel 本次搜索使用的一致性级别
+     */
+    public void put(Key key, List<VectorSearchResult> results, ConsistencyLevel consistencyLevel) {
+        if (cache == null) {
+            return;
+        }
+        if (consistencyLevel != ConsistencyLevel.STRONG) {
+            long lastWrite = globalGeneration.lastWrite;
+            if (key.getSegments() != null) {
+                lastWrite = key.getSegments().stream().mapToLong(segment -> currentGeneration(segment).lastWrite).max().orElse(0);
+            }
+            long settleMillis = milvusProperties.getSearchCache().getSettleTime().toMillis();
+            if (System.currentTimeMillis() - lastWrite < settleMillis) {
+                return;
+            }
+        }
+        cache.put(key, Collections.unmodifiableList(results));
+    }
+
+    /**
+     * segment有写入，使该segment及全局搜索的缓存失效
+     */
+    public void invalidate(Integer segment) {
+        if (segment == null) {
+            invalidateAll();
+            return;
+        }
+        segmentGenerations.computeIfAbsent(segment, s -> new Generation()).bump();
+        globalGeneration.bump();
+    }
+
+    /**
+     * 使所有缓存失效，用于无法确定写入segment的场景
+     */
+    public void invalidateAll() {
+        segmentGenerations.values().forEach(Generation::bump);
+        globalGeneration.bump();
+        if (cache != null) {
+            cache.invalidateAll();
+        }
+    }
+
+    private Generation currentGeneration(Integer segment) {
+        return segmentGenerations.getOrDefault(segment, UNWRITTEN);
+    }
+
+    /**
+     * 规范化查询文本：去除首尾空白，连续空白合并为一个空格
+     */
+    private static String normalize(String text) {
+        return text == null ? "" : text.trim().replaceAll("\\s+", " ");
+    }
+
+    /**
+     * 写入代数与最近写入时间
+     */
+    private static class Generation {
+        private final AtomicLong value = new AtomicLong();
+        private volatile long lastWrite;
+
+        void bump() {
+            lastWrite = System.currentTimeMillis();
+            value.incrementAndGet();
+        }
+    }
+
+    /**
+     * 缓存键
+     */
+    @Value
+    public static class Key {
+        String queryText;
+        Integer topK;
+        List<Integer> segments;
+        List<String> outputFields;
+        boolean includeVector;
+        Map<String, Object> searchParams;
+        MilvusProperties.SearchMode searchMode;
+        MilvusProperties.RankerType ranker;
+        long generation;
+    }
+}
@@ -0,0 +1,111 @@
+package com.beanmeat.milvus.service;
+
+import com.beanmeat.milvus.config.MilvusProperties;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Snowflake风格的主键生成器
+ *
+ * 64位ID：1位符号 + 41位毫秒时间戳（相对 milvus.id.epoch）+ 10位节点号 + 12位序列号。
+ * 时间戳和序列号打包在一个AtomicLong中通过CAS推进，热路径无锁；
+ * 同一毫秒序列号用尽时借用下一毫秒，时钟回拨时沿用已发出的最大时间戳继续递增，保证单调且不重复。
+ */
+@Slf4j
+@Component
+public class SnowflakeIdGenerator {
+
+    private static final int SEQUENCE_BITS = 12;
+    private static final int NODE_BITS = 10;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+
+    private final MilvusProperties milvusProperties;
+    private final LongSupplier clock;
+
+    /**
+     * 高位为逻辑时间戳，低12位为序列号
+     */
+    private final AtomicLong state = new AtomicLong();
+
+    private long epoch;
+    private long nodeId;
+    private long clockBackwardWarnMillis;
+
+    @Autowired
+    public SnowflakeIdGenerator(MilvusProperties milvusProperties) {
+        this(milvusProperties, System::currentTimeMillis);
+    }
+
+    /**
+     * @param clock 毫秒时钟，测试时用于模拟时钟回拨
+     */
+    SnowflakeIdGenerator(MilvusProperties milvusProperties, LongSupplier clock) {
+        this.milvusProperties = milvusProperties;
+        this.clock = clock;
+    }
+
+    @PostConstruct
+    public void init() {
+        MilvusProperties.Id config = milvusProperties.getId();
+        epoch = Instant.parse(config.getEpoch()).toEpochMilli();
+        clockBackwardWarnMillis = config.getClockBackwardWarn().toMillis();
+        Integer configured = config.getNodeId();
+        if (configured != null && configured >= 0) {
+            if (configured > MAX_NODE_ID) {
+                throw new IllegalArgumentException("milvus.id.node-id 超出范围 0-" + MAX_NODE_ID + ": " + configured);
+            }
+            nodeId = configured;
+        } else {
+            nodeId = deriveNodeId();
+            log.warn("未配置 milvus.id.node-id, 根据本机地址推导节点号: {}，多实例部署请显式配置", nodeId);
+        }
+        log.info("主键生成器初始化完成, 节点号: {}, 起始时间: {}", nodeId, config.getEpoch());
+    }
+
+    /**
+     * 生成下一个ID
+     */
+    public long nextId() {
+        while (true) {
+            long now = clock.getAsLong() - epoch;
+            long current = state.get();
+            long lastTimestamp = current >>> SEQUENCE_BITS;
+            long timestamp;
+            long sequence;
+            if (now > lastTimestamp) {
+                timestamp = now;
+                sequence = 0;
+            } else {
+                if (lastTimestamp - now > clockBackwardWarnMillis && (current & SEQUENCE_MASK) == 0) {
+                    log.warn("检测到时钟回拨或序列借用过多, 逻辑时间领先系统时间 {} ms", lastTimestamp - now);
+                }
+                timestamp = lastTimestamp;
+                sequence = (current & SEQUENCE_MASK) + 1;
+                if (sequence > SEQUENCE_MASK) {
+                    timestamp++;
+                    sequence = 0;
+                }
+            }
+            if (state.compareAndSet(current, (timestamp << SEQUENCE_BITS) | sequence)) {
+                return (timestamp << (NODE_BITS + SEQUENCE_BITS)) | (nodeId << SEQUENCE_BITS) | sequence;
+            }
+        }
+    }
+
+    private static long deriveNodeId() {
+        try {
+            byte[] address = InetAddress.getLocalHost().getAddress();
+            return ((address[address.length - 2] & 0xFFL) << 8 | (address[address.length - 1] & 0xFFL)) & MAX_NODE_ID;
+        } catch (Exception e) {
+            return ProcessHandle.current().pid() & MAX_NODE_ID;
+        }
+    }
+}
@@ -1,24 +1,26 @@
 package com.beanmeat.milvus.service;
 
-import com.alibaba.fastjson2.JSON;
-import com.alibaba.fastjson2.JSONObject;
+import com.beanmeat.milvus.config.MilvusProperties;
 import com.beanmeat.milvus.dto.*;
+import com.beanmeat.milvus.embedding.EmbeddingClient;
 import com.beanmeat.milvus.entity.VectorData;
-import com.beanmeat.milvus.repository.HttpUtil;
-import com.beanmeat.milvus.repository.MilvusRepository;
-import com.google.gson.Gson;
-import com.google.gson.JsonObject;
+import com.beanmeat.milvus.exception.OverloadedException;
+import com.beanmeat.milvus.ingest.IngestBuffer;
+import com.beanmeat.milvus.repository.VectorStore;
+import io.milvus.v2.common.ConsistencyLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 
 import java.time.LocalDateTime;
-import java.util.HashMap;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
-import static java.lang.System.currentTimeMillis;
 
 /**
  * 向量数据业务逻辑层
@@ -28,14 +30,21 @@ import static java.lang.System.currentTimeMillis;
 @RequiredArgsConstructor
 public class VectorDataService {
     
-    private final MilvusRepository milvusRepository;
+    private final VectorStore vectorStore;
+    private final MilvusProperties milvusProperties;
+    private final EmbeddingClient embeddingClient;
+    private final SearchResultCache searchResultCache;
+    private final MultiSegmentSearcher multiSegmentSearcher;
+    private final SnowflakeIdGenerator idGenerator;
+    private final IngestBuffer ingestBuffer;
+    private final ExecutorService serviceExecutor;
     
     /**
      * 初始化集合
      */
     public void initializeCollection() {
         try {
-            milvusRepository.createCollection();
+            vectorStore.createCollection();
             log.info("向量数据集合初始化完成");
         } catch (Exception e) {
             log.error("向量数据集合初始化失败", e);
@@ -44,81 +53,148 @@ public class VectorDataService {
     }
     
     /**
-     * 创建向量数据
+     * 创建向量数据，返回的请求中带有分配的ID
+     * 启用异步写入时追加到预写日志后立即返回，数据在后台写入后才可被查询
      */
     public VectorDTO createVectorData(VectorDTO request) {
+        if (ingestBuffer.isEnabled()) {
+            request.setId(ingestBuffer.submit(request));
+            return request;
+        }
         try {
-            JsonObject jsonObject = new JsonObject();
-            // 手动映射每个字段
-            jsonObject.addProperty("id", currentTimeMillis());
-            jsonObject.addProperty("description", request.getDescription());
-            jsonObject.addProperty("segment", request.getSegment());
-            jsonObject.add("description_vector", new Gson().toJsonTree(getVector(request.getDescription())));
-            // 保存到Milvus
-            milvusRepository.insert(jsonObject);
+            return insertVectorData(request, embeddingClient.embed(request.getDescription()));
+        } catch (OverloadedException e) {
+            throw e;
         } catch (Exception e) {
             log.error("创建向量数据失败", e);
             throw new RuntimeException("创建向量数据失败", e);
         }
+    }
+
+    /**
+     * 用已生成的向量创建向量数据：分配ID、写入向量库并失效该segment的搜索缓存
+     * 同步接口和响应式接口共用，返回的请求中带有分配的ID
+     */
+    public VectorDTO insertVectorData(VectorDTO request, float[] descriptionVector) {
+        VectorData vectorData = VectorData.builder()
+                .id(idGenerator.nextId())
+                .description(request.getDescription())
+                .segment(request.getSegment())
+                .descriptionVector(descriptionVector)
+                .build();
+        // 保存到Milvus
+        vectorStore.insert(vectorData);
+        request.setId(vectorData.getId());
+        searchResultCache.invalidate(vectorData.getSegment());
         return request;
     }
     
-    public static List<Float> getVector(String content) {
-        HashMap<String, Object> param = new HashMap<>();
-        param.put("model", "bge-m3");
-        param.put("prompt", content);
-        String json = JSON.toJSONString(param);
-        String result = HttpUtil.postJson("http://192.168.1.106:11434/api/embeddings", json);
-        System.out.println(content);
-        System.out.println(result);
-        return JSON.parseArray(JSON.parseObject(result).get("embedding").toString(), Float.class);
-    }
-
-//
-//    /**
-//     * 批量创建向量数据
-//     */
-//    @Transactional
-//    public List<VectorDataResponse> createVectorDataBatch(List<VectorDataCreateRequest> requests) {
-//        try {
-//            long baseId = System.currentTimeMillis();
-//
-//            List<VectorData> vectorDataList = requests.stream()
-//                    .map((request, index) -> {
-//                        Long id = baseId + index;
-//                        return VectorData.builder()
-//                                .id(id)
-//                                .description(request.getDescription())
-//                                .segment(request.getSegment())
-//                                .descriptionVector(request.getDescriptionVector())
-//                                .createTime(LocalDateTime.now())
-//                                .updateTime(LocalDateTime.now())
-//                                .build();
-//                    })
-//                    .collect(Collectors.toList());
-//
-//            // 批量保存到Milvus
-//            milvusRepository.insertBatch(vectorDataList);
-//
-//            log.info("批量创建向量数据成功, 数量: {}", vectorDataList.size());
-//
-//            // 转换为响应DTO列表
-//            return vectorDataList.stream()
-//                    .map(this::convertToResponse)
-//                    .collect(Collectors.toList());
-//
-//        } catch (Exception e) {
-//            log.error("批量创建向量数据失败", e);
-//            throw new RuntimeException("批量创建向量数据失败", e);
-//        }
-//    }
-//
+    /**
+     * 批量创建向量数据
+     * 描述为空的行直接记为失败；其余行按分片批量生成向量并写入，返回逐行结果；写入当前分片时已开始为下一分片生成向量
+     */
+    public BatchResponse createVectorDataBatch(List<VectorDTO> requests) {
+        List<BatchRowStatus> statuses = new ArrayList<>(requests.size());
+        List<Integer> validIndexes = validateDescriptions(requests, statuses);
+        List<VectorDTO> valid = validIndexes.stream().map(requests::get).collect(Collectors.toList());
+        if (ingestBuffer.isEnabled()) {
+            return acceptVectorDataBatch(valid, validIndexes, statuses);
+        }
+        long[] ids = new long[valid.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = idGenerator.nextId();
+        }
+        int chunkSize = milvusProperties.getInsert().getMaxRows();
+
+        CompletableFuture<List<float[]>> nextVectors = embedChunk(valid, 0, chunkSize);
+        for (int start = 0; start < valid.size(); start += chunkSize) {
+            List<VectorDTO> chunk = valid.subList(start, Math.min(start + chunkSize, valid.size()));
+            CompletableFuture<List<float[]>> chunkVectors = nextVectors;
+            nextVectors = embedChunk(valid, start + chunkSize, chunkSize);
+            try {
+                List<float[]> vectors = await(chunkVectors);
+
+                List<VectorData> rows = new ArrayList<>(chunk.size());
+                for (int i = 0; i < chunk.size(); i++) {
+                    rows.add(VectorData.builder()
+                            .id(ids[start + i])
+                            .description(chunk.get(i).getDescription())
+                            .segment(chunk.get(i).getSegment())
+                            .descriptionVector(vectors.get(i))
+                            .build());
+                }
+
+                for (BatchRowStatus status : vectorStore.insertBatch(rows)) {
+                    status.setIndex(validIndexes.get(start + status.getIndex()));
+                    statuses.add(status);
+                }
+            } catch (Exception e) {
+                log.error("批量创建向量数据分片失败, 起始行: {}", validIndexes.get(start), e);
+                for (int i = 0; i < chunk.size(); i++) {
+                    statuses.add(BatchRowStatus.builder()
+                            .index(validIndexes.get(start + i))
+                            .id(ids[start + i])
+                            .success(false)
+                            .message(e.getMessage())
+                            .build());
+                }
+            }
+        }
+
+        valid.stream().map(VectorDTO::getSegment).distinct().forEach(searchResultCache::invalidate);
+        statuses.sort(Comparator.comparing(BatchRowStatus::getIndex));
+        BatchResponse response = BatchResponse.of(statuses);
+        log.info("批量创建向量数据完成, 总数: {}, 成功: {}, 失败: {}",
+                response.getTotal(), response.getSucceeded(), response.getFailed());
+        return response;
+    }
+
+    /**
+     * 异步写入模式下批量受理，校验通过的行整批追加到预写日志后返回
+     */
+    private BatchResponse acceptVectorDataBatch(List<VectorDTO> valid, List<Integer> validIndexes,
+                                                List<BatchRowStatus> statuses) {
+        long[] ids = ingestBuffer.submitAll(valid);
+        for (int i = 0; i < ids.length; i++) {
+            statuses.add(BatchRowStatus.builder()
+                    .index(validIndexes.get(i))
+                    .id(ids[i])
+                    .success(true)
+                    .message("已受理")
+                    .build());
+        }
+        statuses.sort(Comparator.comparing(BatchRowStatus::getIndex));
+        log.info("批量受理向量数据完成, 总数: {}, 受理: {}", statuses.size(), ids.length);
+        return BatchResponse.of(statuses);
+    }
+
+    /**
+     * 校验批量请求的描述，描述为空的行记为失败
+     * @return 校验通过的行序号
+     */
+    private static List<Integer> validateDescriptions(List<VectorDTO> requests, List<BatchRowStatus> statuses) {
+        List<Integer> validIndexes = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            VectorDTO request = requests.get(i);
+            if (request == null || request.getDescription() == null || request.getDescription().isBlank()) {
+                statuses.add(BatchRowStatus.builder()
+                        .index(i)
+                        .success(false)
+                        .message("描述不能为空")
+                        .build());
+            } else {
+                validIndexes.add(i);
+            }
+        }
+        return validIndexes;
+    }
+
     /**
      * 根据segment获取向量数据
      */
-    public List<JSONObject> getVectorDataBySegment(Long segment) {
+    public List<VectorData> getVectorDataBySegment(Long segment, ConsistencyLevel consistencyLevel, boolean includeVector) {
         try {
-            List<JSONObject> ret = milvusRepository.findBySegment(segment);
+            List<VectorData> ret = vectorStore.findBySegment(segment, consistencyLevel, includeVector);
             if (ret == null) {
                 throw new RuntimeException("向量数据不存在, ID: " + segment);
             }
@@ -129,59 +205,285 @@ public class VectorDataService {
         }
     }
 
+    /**
+     * 按segment流式导出向量数据，逐页回调
+     * @param afterId 续传游标，传入上次收到的最后一个id
+     * @param pageSize 每页行数，需先经 {@link #resolveExportPageSize(Integer)} 校验
+     */
+    public void exportVectorDataBySegment(Long segment, Long afterId, ConsistencyLevel consistencyLevel,
+                                          boolean includeVector, int pageSize,
+                                          Consumer<List<VectorData>> pageConsumer) {
+        vectorStore.iterateBySegment(segment, afterId, consistencyLevel, includeVector, pageSize, pageConsumer);
+    }
+
+    /**
+     * 校验导出每页行数，为空时使用默认配置
+     */
+    public int resolveExportPageSize(Integer pageSize) {
+        MilvusProperties.Export export = milvusProperties.getExport();
+        int size = pageSize != null ? pageSize : export.getPageSize();
+        if (size <= 0 || size > export.getMaxPageSize()) {
+            throw new IllegalArgumentException("pageSize需在1到" + export.getMaxPageSize() + "之间");
+        }
+        return size;
+    }
+
+    /**
+     * 导出请求的异步超时（毫秒），0表示不限制
+     */
+    public long resolveExportTimeout() {
+        return Math.max(0, milvusProperties.getExport().getTimeout().toMillis());
+    }
+
     /**
      * 更新向量数据
+     * 请求带描述时，查询已有数据与生成新描述的向量同时进行；描述未变化时取消并丢弃生成结果，复用已有向量。
+     * 只修改segment的请求不调用向量模型。通过upsert原子替换整行
      */
     public void updateVectorData(VectorDTO request) {
+        CompletableFuture<float[]> embedding = embedDescription(request);
         try {
-            // 先查询现有数据
-            JSONObject existingData = milvusRepository.findById(String.valueOf(request.getId()));
+            VectorData existingData = vectorStore.findById(String.valueOf(request.getId()));
             if (existingData == null) {
                 throw new RuntimeException("向量数据不存在, ID: " + request.getId());
             }
 
-            // 删除旧数据
-            milvusRepository.deleteById(String.valueOf(request.getId()));
-
-            // 创建更新后的数据
-            JsonObject jsonObject = new JsonObject();
-            // 手动映射每个字段
-            jsonObject.addProperty("id", String.valueOf(request.getId()));
-            jsonObject.addProperty("description", request.getDescription() != null ? request.getDescription() : existingData.getString("description"));
-            jsonObject.addProperty("segment", request.getSegment() != null ? request.getSegment() : existingData.getInteger("segment"));
-            jsonObject.add("description_vector", new Gson().toJsonTree(getVector(request.getDescription() != null ? request.getDescription() : existingData.getString("description"))));
-            // 保存到Milvus
-            milvusRepository.insert(jsonObject);
+            VectorData vectorData = merge(request, existingData);
+            if (vectorData.getDescriptionVector() == null) {
+                vectorData.setDescriptionVector(embedding != null
+                        ? await(embedding)
+                        : embeddingClient.embed(vectorData.getDescription()));
+            }
+            vectorStore.upsert(vectorData);
+            searchResultCache.invalidate(existingData.getSegment());
+            searchResultCache.invalidate(vectorData.getSegment());
             log.info("向量数据更新成功, ID: {}", request.getId());
+        } catch (OverloadedException e) {
+            throw e;
         } catch (Exception e) {
             log.error("更新向量数据失败, ID: {}", request.getId(), e);
             throw new RuntimeException("更新向量数据失败", e);
+        } finally {
+            if (embedding != null) {
+                // 描述未变化或数据不存在时不再需要；已发出的模型调用仍会完成，结果只进入向量缓存
+                embedding.cancel(false);
+            }
+        }
+    }
+
+    /**
+     * 请求带描述时发起异步向量化，否则返回null
+     * 发起时同步抛出的异常包装为失败的future，只有确实需要新向量时才抛出
+     */
+    private CompletableFuture<float[]> embedDescription(VectorDTO request) {
+        if (request.getDescription() == null) {
+            return null;
+        }
+        try {
+            return embeddingClient.embedAsync(request.getDescription());
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
         }
     }
 
+    /**
+     * 批量更新向量数据
+     * 按分片批量查询已有数据，仅对描述变化的行批量生成向量，再批量upsert；处理当前分片时已开始查询下一分片的已有数据
+     */
+    public BatchResponse updateVectorDataBatch(List<VectorDTO> requests) {
+        int chunkSize = milvusProperties.getInsert().getMaxRows();
+        List<BatchRowStatus> statuses = new ArrayList<>(requests.size());
+        Set<Integer> touchedSegments = new HashSet<>();
+
+        CompletableFuture<List<VectorData>> nextExisting = findChunk(requests, 0, chunkSize);
+        for (int start = 0; start < requests.size(); start += chunkSize) {
+            List<VectorDTO> chunk = requests.subList(start, Math.min(start + chunkSize, requests.size()));
+            CompletableFuture<List<VectorData>> chunkExisting = nextExisting;
+            nextExisting = findChunk(requests, start + chunkSize, chunkSize);
+            try {
+                Map<Long, VectorData> existing = await(chunkExisting).stream()
+                        .collect(Collectors.toMap(VectorData::getId, data -> data));
+
+                List<Integer> rowIndexes = new ArrayList<>();
+                List<VectorData> rows = new ArrayList<>();
+                List<VectorData> needEmbedding = new ArrayList<>();
+                for (int i = 0; i < chunk.size(); i++) {
+                    VectorDTO request = chunk.get(i);
+                    VectorData existingData = request.getId() != null ? existing.get(request.getId()) : null;
+                    if (existingData == null) {
+                        statuses.add(BatchRowStatus.builder()
+                                .index(start + i)
+                                .id(request.getId())
+                                .success(false)
+                                .message("向量数据不存在, ID: " + request.getId())
+                                .build());
+                        continue;
+                    }
+                    VectorData vectorData = merge(request, existingData);
+                    if (vectorData.getDescriptionVector() == null) {
+                        needEmbedding.add(vectorData);
+                    }
+                    touchedSegments.add(existingData.getSegment());
+                    touchedSegments.add(vectorData.getSegment());
+                    rowIndexes.add(start + i);
+                    rows.add(vectorData);
+                }
+
+                if (!needEmbedding.isEmpty()) {
+                    List<float[]> vectors = embeddingClient.embedAll(needEmbedding.stream()
+                            .map(VectorData::getDescription)
+                            .collect(Collectors.toList()));
+                    for (int i = 0; i < needEmbedding.size(); i++) {
+                        needEmbedding.get(i).setDescriptionVector(vectors.get(i));
+                    }
+                }
+
+                for (BatchRowStatus status : vectorStore.upsertBatch(rows)) {
+                    status.setIndex(rowIndexes.get(status.getIndex()));
+                    statuses.add(status);
+                }
+                log.debug("批量更新分片完成, 行数: {}, 重新生成向量: {}", rows.size(), needEmbedding.size());
+            } catch (Exception e) {
+                log.error("批量更新向量数据分片失败, 起始行: {}", start, e);
+                for (int i = 0; i < chunk.size(); i++) {
+                    statuses.add(BatchRowStatus.builder()
+                            .index(start + i)
+                            .id(chunk.get(i).getId())
+                            .success(false)
+                            .message(e.getMessage())
+                            .build());
+                }
+            }
+        }
+
+        touchedSegments.forEach(searchResultCache::invalidate);
+        statuses.sort(Comparator.comparing(BatchRowStatus::getIndex));
+        BatchResponse response = BatchResponse.of(statuses);
+        log.info("批量更新向量数据完成, 总数: {}, 成功: {}, 失败: {}",
+                response.getTotal(), response.getSucceeded(), response.getFailed());
+        return response;
+    }
+
+    /**
+     * 为从start开始的分片发起异步向量化，超出范围时返回null
+     * 发起时同步抛出的异常（如微批队列已满）包装为失败的future，只影响该分片
+     */
+    private CompletableFuture<List<float[]>> embedChunk(List<VectorDTO> requests, int start, int chunkSize) {
+        if (start >= requests.size()) {
+            return null;
+        }
+        try {
+            return embeddingClient.embedAllAsync(requests.subList(start, Math.min(start + chunkSize, requests.size()))
+                    .stream()
+                    .map(VectorDTO::getDescription)
+                    .collect(Collectors.toList()));
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * 在服务线程池上查询从start开始的分片的已有数据，超出范围时返回null
+     */
+    private CompletableFuture<List<VectorData>> findChunk(List<VectorDTO> requests, int start, int chunkSize) {
+        if (start >= requests.size()) {
+            return null;
+        }
+        List<Long> ids = requests.subList(start, Math.min(start + chunkSize, requests.size())).stream()
+                .map(VectorDTO::getId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .collect(Collectors.toList());
+        return CompletableFuture.supplyAsync(() -> vectorStore.findByIds(ids), serviceExecutor);
+    }
+
+    /**
+     * 等待并行步骤的结果，执行异常按原异常抛出
+     */
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("等待并行任务结果被中断", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    /**
+     * 合并更新请求与已有数据，描述未变化时保留已有向量，否则向量置空待重新生成
+     */
+    private static VectorData merge(VectorDTO request, VectorData existingData) {
+        String description = request.getDescription() != null ? request.getDescription() : existingData.getDescription();
+        boolean descriptionChanged = !Objects.equals(description, existingData.getDescription());
+        return VectorData.builder()
+                .id(existingData.getId())
+                .description(description)
+                .segment(request.getSegment() != null ? request.getSegment() : existingData.getSegment())
+                .descriptionVector(descriptionChanged ? null : existingData.getDescriptionVector())
+                .build();
+    }
+
     /**
      * 删除向量数据
      */
     public void deleteVectorData(String ids) {
+        Set<Integer> segments = null;
         try {
-            milvusRepository.deleteById(ids);
+            segments = vectorStore.findSegmentsByIds(Arrays.stream(ids.split(","))
+                    .map(String::trim)
+                    .map(Long::parseLong)
+                    .collect(Collectors.toList()));
+        } catch (Exception e) {
+            log.warn("查询待删除数据的segment失败, 清空全部搜索缓存, ID: {}", ids, e);
+        }
+        try {
+            vectorStore.deleteById(ids);
         } catch (Exception e) {
             log.error("删除向量数据失败, ID: {}", ids, e);
             throw new RuntimeException("删除向量数据失败", e);
+        } finally {
+            if (segments != null) {
+                segments.forEach(searchResultCache::invalidate);
+            } else {
+                searchResultCache.invalidateAll();
+            }
         }
     }
     
+    /**
+     * 查看异步写入死信日志中待处理的行
+     */
+    public List<VectorDTO> listDeadLetters(int limit) {
+        return ingestBuffer.listDeadLetters(limit).stream()
+                .map(record -> VectorDTO.builder()
+                        .id(record.getId())
+                        .description(record.getDescription())
+                        .segment(record.getSegment())
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 把死信日志中的行重新交给异步写入，返回行数
+     */
+    public int replayDeadLetters() {
+        return ingestBuffer.replayDeadLetters();
+    }
+
     /**
      * 向量相似度搜索
      */
-    public List<JSONObject> searchVectorData(VectorSearchRequest request) {
+    public List<VectorSearchResult> searchVectorData(VectorSearchRequest request) {
         try {
-            List<JSONObject> searchResults = milvusRepository.search(
-                    request.getQueryText(),
-                    request.getTopK(),
-                    request.getSegment()
-            );
-            return searchResults;
+            return searchResultCache.getOrSearch(searchResultCache.key(request), request.getConsistencyLevel(),
+                    () -> multiSegmentSearcher.search(embeddingClient.embed(request.getQueryText()), request));
+        } catch (OverloadedException e) {
+            throw e;
         } catch (Exception e) {
             log.error("向量搜索失败", e);
             throw new RuntimeException("向量搜索失败", e);
@@ -0,0 +1,104 @@
+package com.beanmeat.milvus.util;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * 请求合并（singleflight）：同一个键同时只有一次调用在途，并发的相同请求共享这次调用的结果
+ *
+ * 调用完成（成功或失败）后立即释放该键，之后的请求重新发起调用，不缓存结果。
+ * 合并情况通过 singleflight.calls（name, role=leader/shared）和 singleflight.inflight 暴露。
+ */
+public class SingleFlight<K, V> {
+
+    private final Map<K, CompletableFuture<V>> inflight = new ConcurrentHashMap<>();
+    private final Counter leaderCalls;
+    private final Counter sharedCalls;
+
+    public SingleFlight(String name, MeterRegistry meterRegistry) {
+        this.leaderCalls = Counter.builder("singleflight.calls")
+                .tags("name", name, "role", "leader")
+                .register(meterRegistry);
+        this.sharedCalls = Counter.builder("singleflight.calls")
+                .tags("name", name, "role", "shared")
+                .register(meterRegistry);
+        Gauge.builder("singleflight.inflight", inflight, Map::size)
+                .tags("name", name)
+                .register(meterRegistry);
+    }
+
+    /**
+     * 同步执行：没有在途调用时由当前线程执行loader，否则等待在途调用的结果
+     */
+    public V execute(K key, Supplier<V> loader) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> existing = inflight.putIfAbsent(key, flight);
+        if (existing != null) {
+            sharedCalls.increment();
+            return await(existing);
+        }
+        leaderCalls.increment();
+        try {
+            V value = loader.get();
+            inflight.remove(key, flight);
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            inflight.remove(key, flight);
+            flight.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * 异步执行：没有在途调用时发起loader，否则返回在途调用的结果
+     * 每个调用方拿到独立的Future，取消或完成不影响其他调用方
+     */
+    public CompletableFuture<V> executeAsync(K key, Supplier<CompletableFuture<V>> loader) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> existing = inflight.putIfAbsent(key, flight);
+        if (existing != null) {
+            sharedCalls.increment();
+            return existing.copy();
+        }
+        leaderCalls.increment();
+        try {
+            loader.get().whenComplete((value, error) -> {
+                inflight.remove(key, flight);
+                if (error != null) {
+                    flight.completeExceptionally(error);
+                } else {
+                    flight.complete(value);
+                }
+            });
+        } catch (RuntimeException | Error e) {
+            inflight.remove(key, flight);
+            flight.completeExceptionally(e);
+        }
+        return flight.copy();
+    }
+
+    private static <V> V await(CompletableFuture<V> flight) {
+        try {
+            return flight.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("等待合并请求结果被中断", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new RuntimeException("合并请求执行失败", e.getCause());
+        }
+    }
+}
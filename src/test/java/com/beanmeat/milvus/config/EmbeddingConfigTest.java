@@ -0,0 +1,154 @@
+package com.beanmeat.milvus.config;
+
+import com.beanmeat.milvus.embedding.EmbeddingClient;
+import com.beanmeat.milvus.embedding.EmbeddingOverloadedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.DoubleSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 装配后的向量化客户端链：微批聚合 -> 并发限制 -> 模型
+ */
+class EmbeddingConfigTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final FakeModel model = new FakeModel();
+    private EmbeddingConfig embeddingConfig;
+
+    @AfterEach
+    void tearDown() {
+        embeddingConfig.destroy();
+    }
+
+    @Test
+    void limiterBoundsBatchesWithoutStallingAggregation() throws Exception {
+        EmbeddingClient client = assemble(2, 4, 16);
+
+        List<CompletableFuture<float[]>> results = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            results.add(client.embedAsync("text-" + i));
+        }
+
+        // 两个批次占满上限，其余三个批次已发出并在限制器中排队，聚合线程没有被阻塞
+        awaitValue(() -> gauge("embedding.limiter.waiting"), 3);
+        assertThat(model.calls).hasSize(2);
+
+        for (int completed = 0; completed < 5; completed++) {
+            model.calls.poll(5, TimeUnit.SECONDS).complete();
+        }
+        for (int i = 0; i < 5; i++) {
+            assertThat(results.get(i).get(5, TimeUnit.SECONDS)).containsExactly(i);
+        }
+        assertThat(model.peakConcurrency.get()).isLessThanOrEqualTo(4);
+        assertThat(gauge("embedding.limiter.limit")).isGreaterThan(2.0);
+        assertThat(gauge("embedding.limiter.inflight")).isZero();
+    }
+
+    @Test
+    void rejectedBatchFailsOnlyItsOwnCallers() throws Exception {
+        EmbeddingClient client = assemble(1, 1, 1);
+
+        CompletableFuture<float[]> first = client.embedAsync("text-0");
+        CompletableFuture<float[]> queued = client.embedAsync("text-1");
+        awaitValue(() -> gauge("embedding.limiter.waiting"), 1);
+        CompletableFuture<float[]> rejected = client.embedAsync("text-2");
+
+        assertThatThrownBy(() -> rejected.get(5, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(EmbeddingOverloadedException.class);
+
+        model.calls.poll(5, TimeUnit.SECONDS).complete();
+        model.calls.poll(5, TimeUnit.SECONDS).complete();
+        assertThat(first.get(5, TimeUnit.SECONDS)).containsExactly(0);
+        assertThat(queued.get(5, TimeUnit.SECONDS)).containsExactly(1);
+
+        // 拒绝之后聚合继续工作
+        CompletableFuture<float[]> next = client.embedAsync("text-3");
+        model.calls.poll(5, TimeUnit.SECONDS).complete();
+        assertThat(next.get(5, TimeUnit.SECONDS)).containsExactly(3);
+    }
+
+    private EmbeddingClient assemble(int initialLimit, int maxLimit, int maxQueue) {
+        EmbeddingProperties properties = new EmbeddingProperties();
+        properties.setCoalescing(false);
+        EmbeddingProperties.Limiter limiter = properties.getLimiter();
+        limiter.setEnabled(true);
+        limiter.setInitialLimit(initialLimit);
+        limiter.setMinLimit(1);
+        limiter.setMaxLimit(maxLimit);
+        limiter.setMaxQueue(maxQueue);
+        limiter.setMaxWait(Duration.ofSeconds(5));
+        limiter.setLatencyThreshold(Duration.ofSeconds(10));
+        EmbeddingProperties.Batching batching = properties.getBatching();
+        batching.setEnabled(true);
+        batching.setMaxBatchSize(1);
+        batching.setLinger(Duration.ofMillis(1));
+        embeddingConfig = new EmbeddingConfig(properties);
+        return embeddingConfig.decorate(model, meterRegistry);
+    }
+
+    private double gauge(String name) {
+        return meterRegistry.get(name).gauge().value();
+    }
+
+    private static void awaitValue(DoubleSupplier value, double expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (value.getAsDouble() != expected) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.sleep(5);
+        }
+    }
+
+    /**
+     * 模型服务替身：每次批量调用挂起，直到测试显式完成
+     */
+    private static final class FakeModel implements EmbeddingClient {
+
+        private final BlockingQueue<Call> calls = new LinkedBlockingQueue<>();
+        private final AtomicInteger concurrency = new AtomicInteger();
+        private final AtomicInteger peakConcurrency = new AtomicInteger();
+
+        @Override
+        public List<float[]> embedAll(List<String> texts) {
+            return embedAllAsync(texts).join();
+        }
+
+        @Override
+        public CompletableFuture<List<float[]>> embedAllAsync(List<String> texts) {
+            peakConcurrency.accumulateAndGet(concurrency.incrementAndGet(), Math::max);
+            Call call = new Call(texts);
+            calls.add(call);
+            return call.future;
+        }
+
+        private final class Call {
+            private final List<String> texts;
+            private final CompletableFuture<List<float[]>> future = new CompletableFuture<>();
+
+            private Call(List<String> texts) {
+                this.texts = texts;
+            }
+
+            private void complete() {
+                List<float[]> vectors = new ArrayList<>(texts.size());
+                for (String text : texts) {
+                    vectors.add(new float[]{Integer.parseInt(text.substring(text.indexOf('-') + 1))});
+                }
+                concurrency.decrementAndGet();
+                future.complete(vectors);
+            }
+        }
+    }
+}
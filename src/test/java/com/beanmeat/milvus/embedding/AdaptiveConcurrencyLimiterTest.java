@@ -0,0 +1,145 @@
+package com.beanmeat.milvus.embedding;
+
+import com.beanmeat.milvus.config.EmbeddingProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * AIMD并发上限的增减与排队拒绝
+ */
+class AdaptiveConcurrencyLimiterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void limitGrowsOnlyWhenSaturated() {
+        AdaptiveConcurrencyLimiter limiter = limiter(2, 1, 4, Duration.ofSeconds(10));
+
+        // 未用满上限时成功调用不增长
+        limiter.release(limiter.acquire(), false);
+        assertThat(limit()).isEqualTo(2.0);
+
+        long first = limiter.acquire();
+        long second = limiter.acquire();
+        limiter.release(first, false);
+        limiter.release(second, false);
+        assertThat(limit()).isEqualTo(2.5);
+    }
+
+    @Test
+    void limitIsCappedAtMaxLimit() {
+        AdaptiveConcurrencyLimiter limiter = limiter(2, 1, 2, Duration.ofSeconds(10));
+
+        long first = limiter.acquire();
+        long second = limiter.acquire();
+        limiter.release(first, false);
+        limiter.release(second, false);
+
+        assertThat(limit()).isEqualTo(2.0);
+    }
+
+    @Test
+    void limitShrinksOnFailureAndSlowCalls() {
+        AdaptiveConcurrencyLimiter limiter = limiter(10, 4, 16, Duration.ofSeconds(10));
+
+        limiter.release(limiter.acquire(), true);
+        assertThat(limit()).isEqualTo(5.0);
+
+        // 开始时间早于阈值视为慢调用
+        long slowStart = limiter.acquire() - TimeUnit.SECONDS.toNanos(11);
+        limiter.release(slowStart, false);
+        assertThat(limit()).isEqualTo(4.0);
+
+        limiter.release(limiter.acquire(), true);
+        assertThat(limit()).isEqualTo(4.0);
+    }
+
+    @Test
+    void rejectsWhenQueueIsFull() throws Exception {
+        EmbeddingProperties.Limiter config = config(1, 1, 1);
+        config.setMaxQueue(1);
+        config.setMaxWait(Duration.ofSeconds(5));
+        config.setRetryAfter(Duration.ofSeconds(3));
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(config, meterRegistry);
+
+        long held = limiter.acquire();
+        CompletableFuture<Long> queued = CompletableFuture.supplyAsync(limiter::acquire);
+        awaitWaiting(1);
+
+        assertThatThrownBy(limiter::acquire)
+                .isInstanceOf(EmbeddingOverloadedException.class)
+                .satisfies(e -> assertThat(((EmbeddingOverloadedException) e).getRetryAfter())
+                        .isEqualTo(Duration.ofSeconds(3)));
+        assertThat(meterRegistry.get("embedding.limiter.rejected").counter().count()).isEqualTo(1);
+
+        // 释放后排队的调用获得许可
+        limiter.release(held, false);
+        limiter.release(queued.get(5, TimeUnit.SECONDS), false);
+        assertThat(meterRegistry.get("embedding.limiter.inflight").gauge().value()).isZero();
+    }
+
+    @Test
+    void rejectsAfterMaxWait() {
+        EmbeddingProperties.Limiter config = config(1, 1, 1);
+        config.setMaxWait(Duration.ofMillis(50));
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(config, meterRegistry);
+
+        limiter.acquire();
+
+        assertThatThrownBy(limiter::acquire).isInstanceOf(EmbeddingOverloadedException.class);
+        assertThat(meterRegistry.get("embedding.limiter.waiting").gauge().value()).isZero();
+        assertThat(meterRegistry.get("embedding.limiter.rejected").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void asyncAcquireQueuesWithoutBlockingAndSkipsCancelledWaiters() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = limiter(1, 1, 1, Duration.ofSeconds(10));
+
+        long held = limiter.acquireAsync().get();
+        CompletableFuture<Long> cancelled = limiter.acquireAsync();
+        CompletableFuture<Long> queued = limiter.acquireAsync();
+        assertThat(cancelled).isNotDone();
+        assertThat(queued).isNotDone();
+
+        cancelled.cancel(false);
+        limiter.release(held, false);
+
+        limiter.release(queued.get(5, TimeUnit.SECONDS), false);
+        assertThat(meterRegistry.get("embedding.limiter.inflight").gauge().value()).isZero();
+        assertThat(meterRegistry.get("embedding.limiter.waiting").gauge().value()).isZero();
+    }
+
+    private AdaptiveConcurrencyLimiter limiter(int initial, int min, int max, Duration latencyThreshold) {
+        EmbeddingProperties.Limiter config = config(initial, min, max);
+        config.setLatencyThreshold(latencyThreshold);
+        config.setBackoffRatio(0.5);
+        return new AdaptiveConcurrencyLimiter(config, meterRegistry);
+    }
+
+    private static EmbeddingProperties.Limiter config(int initial, int min, int max) {
+        EmbeddingProperties.Limiter config = new EmbeddingProperties.Limiter();
+        config.setInitialLimit(initial);
+        config.setMinLimit(min);
+        config.setMaxLimit(max);
+        return config;
+    }
+
+    private double limit() {
+        return meterRegistry.get("embedding.limiter.limit").gauge().value();
+    }
+
+    private void awaitWaiting(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get("embedding.limiter.waiting").gauge().value() < expected) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.beanmeat.milvus.ingest;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 预写日志的追加、回放与checkpoint
+ */
+class WriteAheadLogTest {
+
+    private static final long SEGMENT_SIZE = 64 * 1024;
+
+    /**
+     * 记录头：length + crc + sequence + id + createdAt + segment + descLength
+     */
+    private static final int RECORD_OVERHEAD = 4 + 4 + 8 + 8 + 8 + 4 + 4;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void replayReturnsRecordsAfterCheckpoint() throws IOException {
+        try (WriteAheadLog wal = open()) {
+            wal.append(101, 1, "first");
+            wal.append(102, null, null);
+            wal.append(103, 3, "");
+            wal.checkpoint(1);
+        }
+
+        List<WalRecord> replayed = new ArrayList<>();
+        try (WriteAheadLog wal = new WriteAheadLog(directory, SEGMENT_SIZE, false)) {
+            wal.replay(replayed::add);
+            assertThat(wal.checkpointSequence()).isEqualTo(1);
+            assertThat(wal.lastSequence()).isEqualTo(3);
+        }
+
+        assertThat(replayed).extracting(WalRecord::getSequence).containsExactly(2L, 3L);
+        WalRecord nulls = replayed.get(0);
+        assertThat(nulls.getId()).isEqualTo(102);
+        assertThat(nulls.getSegment()).isNull();
+        assertThat(nulls.getDescription()).isNull();
+        WalRecord empty = replayed.get(1);
+        assertThat(empty.getSegment()).isEqualTo(3);
+        assertThat(empty.getDescription()).isEmpty();
+    }
+
+    @Test
+    void replayAfterCrashStopsAtTornRecordAndKeepsAppending() throws IOException {
+        // 不调用close模拟进程崩溃，已写入映射内存的记录仍在文件中
+        WriteAheadLog crashed = open();
+        crashed.append(1, 1, "a");
+        crashed.append(2, 1, "bb");
+        crashed.append(3, 2, "ccc");
+
+        // 第四条只写了长度和部分记录体
+        Path segment = segmentFiles().get(0);
+        long tornAt = 3L * RECORD_OVERHEAD + 1 + 2 + 3;
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            file.seek(tornAt);
+            file.writeInt(RECORD_OVERHEAD - 8 + 4);
+            file.writeInt(0x12345678);
+            file.writeLong(4);
+        }
+
+        List<WalRecord> replayed = new ArrayList<>();
+        try (WriteAheadLog wal = open()) {
+            wal.replay(replayed::add);
+            assertThat(replayed).extracting(WalRecord::getDescription).containsExactly("a", "bb", "ccc");
+
+            WalRecord next = wal.append(4, 2, "dddd");
+            assertThat(next.getSequence()).isEqualTo(4);
+        }
+
+        replayed.clear();
+        try (WriteAheadLog wal = open()) {
+            wal.replay(replayed::add);
+        }
+        assertThat(replayed).extracting(WalRecord::getSequence).containsExactly(1L, 2L, 3L, 4L);
+        assertThat(segmentFiles()).hasSize(3);
+    }
+
+    @Test
+    void checkpointDeletesFullyFlushedSegments() throws IOException {
+        long segmentSize = 4 * (RECORD_OVERHEAD + 4);
+        try (WriteAheadLog wal = new WriteAheadLog(directory, segmentSize, false)) {
+            wal.replay(record -> {
+            });
+            for (int i = 1; i <= 10; i++) {
+                wal.append(i, 1, String.format("r%03d", i));
+            }
+            assertThat(segmentFiles()).hasSizeGreaterThan(2);
+
+            wal.checkpoint(wal.lastSequence());
+            assertThat(segmentFiles()).hasSize(1);
+        }
+
+        List<WalRecord> replayed = new ArrayList<>();
+        try (WriteAheadLog wal = new WriteAheadLog(directory, segmentSize, false)) {
+            wal.replay(replayed::add);
+        }
+        assertThat(replayed).isEmpty();
+    }
+
+    @Test
+    void scanReadsActiveSegmentWithoutChangingState() throws IOException {
+        try (WriteAheadLog wal = open()) {
+            wal.append(1, 1, "a");
+            wal.append(2, 1, "b");
+            wal.append(3, 1, "c");
+            wal.checkpoint(1);
+
+            List<WalRecord> scanned = new ArrayList<>();
+            wal.scan(2, scanned::add);
+            assertThat(scanned).extracting(WalRecord::getDescription).containsExactly("b");
+
+            scanned.clear();
+            wal.scan(wal.lastSequence(), scanned::add);
+            assertThat(scanned).extracting(WalRecord::getSequence).containsExactly(2L, 3L);
+            assertThat(wal.append(4, 1, "d").getSequence()).isEqualTo(4);
+        }
+    }
+
+    @Test
+    void segmentSizeLargerThanMappingLimitIsClamped() throws IOException {
+        try (WriteAheadLog wal = new WriteAheadLog(directory.resolve("large"), 4096L * 1024 * 1024, false)) {
+            assertThat(wal.lastSequence()).isZero();
+        }
+    }
+
+    private WriteAheadLog open() throws IOException {
+        WriteAheadLog wal = new WriteAheadLog(directory, SEGMENT_SIZE, false);
+        wal.replay(record -> {
+        });
+        return wal;
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().startsWith("wal-"))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+}
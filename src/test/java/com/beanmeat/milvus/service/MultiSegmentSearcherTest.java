@@ -0,0 +1,124 @@
+package com.beanmeat.milvus.service;
+
+import com.beanmeat.milvus.config.MilvusProperties;
+import com.beanmeat.milvus.dto.VectorSearchRequest;
+import com.beanmeat.milvus.dto.VectorSearchResult;
+import com.beanmeat.milvus.repository.VectorStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 多段搜索结果合并与策略选择
+ */
+class MultiSegmentSearcherTest {
+
+    private final VectorStore vectorStore = mock(VectorStore.class);
+    private final MilvusProperties milvusProperties = new MilvusProperties();
+    private ExecutorService executor;
+    private MultiSegmentSearcher searcher;
+
+    @BeforeEach
+    void setUp() {
+        milvusProperties.getCollection().getFields().getDescriptionVector().setMetricType("COSINE");
+        executor = Executors.newFixedThreadPool(4);
+        searcher = new MultiSegmentSearcher(vectorStore, milvusProperties, new SimpleMeterRegistry(), executor);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void mergeTopKKeepsHighestScoresForSimilarityMetrics() {
+        List<VectorSearchResult> merged = MultiSegmentSearcher.mergeTopK(Arrays.asList(
+                results(0.9f, 0.5f, 0.1f),
+                results(0.95f, 0.6f),
+                results(0.7f)), 3, false);
+
+        assertThat(scores(merged)).containsExactly(0.95f, 0.9f, 0.7f);
+    }
+
+    @Test
+    void mergeTopKKeepsLowestDistancesForL2() {
+        List<VectorSearchResult> merged = MultiSegmentSearcher.mergeTopK(Arrays.asList(
+                results(0.1f, 0.5f, 0.9f),
+                results(0.05f, 0.6f),
+                results(0.3f)), 3, true);
+
+        assertThat(scores(merged)).containsExactly(0.05f, 0.1f, 0.3f);
+    }
+
+    @Test
+    void mergeTopKReturnsAllResultsWhenFewerThanTopK() {
+        List<VectorSearchResult> merged = MultiSegmentSearcher.mergeTopK(Arrays.asList(
+                results(0.2f), Collections.emptyList(), results(0.8f, 0.4f)), 10, false);
+
+        assertThat(scores(merged)).containsExactly(0.8f, 0.4f, 0.2f);
+    }
+
+    @Test
+    void fanOutSearchesEachSegmentAndMergesByMetric() {
+        milvusProperties.getCollection().getFields().getDescriptionVector().setMetricType("L2");
+        when(vectorStore.search(any(), anyInt(), eq(List.of(1)), any(), any(), any(), anyBoolean()))
+                .thenReturn(results(0.4f, 0.8f));
+        when(vectorStore.search(any(), anyInt(), eq(List.of(2)), any(), any(), any(), anyBoolean()))
+                .thenReturn(results(0.2f, 0.9f));
+
+        List<VectorSearchResult> merged = searcher.search(new float[]{1f}, request(
+                MilvusProperties.SearchMode.DENSE, MilvusProperties.MultiSegmentStrategy.FAN_OUT));
+
+        assertThat(scores(merged)).containsExactly(0.2f, 0.4f);
+        verify(vectorStore, times(2)).search(any(), anyInt(), anyList(), any(), any(), any(), anyBoolean());
+    }
+
+    @Test
+    void hybridSearchAlwaysUsesInFilter() {
+        when(vectorStore.hybridSearch(any(), any(), anyInt(), any(), any(), any(), any(), anyBoolean(), any()))
+                .thenReturn(results(0.03f));
+
+        searcher.search(new float[]{1f}, request(
+                MilvusProperties.SearchMode.HYBRID, MilvusProperties.MultiSegmentStrategy.FAN_OUT));
+
+        verify(vectorStore).hybridSearch(any(), eq("query"), eq(2), eq(List.of(1, 2)), any(), any(), any(),
+                anyBoolean(), any());
+        verifyNoMoreInteractions(vectorStore);
+    }
+
+    private static VectorSearchRequest request(MilvusProperties.SearchMode mode,
+                                               MilvusProperties.MultiSegmentStrategy strategy) {
+        VectorSearchRequest request = new VectorSearchRequest();
+        request.setQueryText("query");
+        request.setTopK(2);
+        request.setSegments(List.of(1, 2));
+        request.setSearchMode(mode);
+        request.setSegmentStrategy(strategy);
+        return request;
+    }
+
+    private static List<VectorSearchResult> results(float... scores) {
+        List<VectorSearchResult> results = new ArrayList<>(scores.length);
+        for (int i = 0; i < scores.length; i++) {
+            results.add(VectorSearchResult.builder().id((long) i).score(scores[i]).build());
+        }
+        return results;
+    }
+
+    private static List<Float> scores(List<VectorSearchResult> results) {
+        return results.stream().map(VectorSearchResult::getScore).collect(Collectors.toList());
+    }
+}
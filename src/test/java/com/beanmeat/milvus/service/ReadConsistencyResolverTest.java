@@ -0,0 +1,40 @@
+package com.beanmeat.milvus.service;
+
+import com.beanmeat.milvus.config.MilvusProperties;
+import io.milvus.v2.common.ConsistencyLevel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 读一致性级别解析：只升级默认级别，显式指定的级别原样使用
+ */
+class ReadConsistencyResolverTest {
+
+    private ReadConsistencyResolver resolver;
+
+    @BeforeEach
+    void setUp() {
+        resolver = new ReadConsistencyResolver(new MilvusProperties());
+        resolver.init();
+    }
+
+    @Test
+    void defaultLevelIsUpgradedForRecentWriters() {
+        resolver.recordWrite("writer");
+
+        assertThat(resolver.resolve(null, "writer")).isEqualTo(ConsistencyLevel.SESSION);
+        assertThat(resolver.resolve(null, "reader")).isEqualTo(ConsistencyLevel.BOUNDED);
+        assertThat(resolver.resolve(null, null)).isEqualTo(ConsistencyLevel.BOUNDED);
+    }
+
+    @Test
+    void explicitLevelIsPassedThrough() {
+        resolver.recordWrite("writer");
+
+        assertThat(resolver.resolve(ConsistencyLevel.SESSION, "reader")).isEqualTo(ConsistencyLevel.SESSION);
+        assertThat(resolver.resolve(ConsistencyLevel.BOUNDED, "writer")).isEqualTo(ConsistencyLevel.BOUNDED);
+        assertThat(resolver.resolve(ConsistencyLevel.EVENTUALLY, "writer")).isEqualTo(ConsistencyLevel.EVENTUALLY);
+    }
+}
@@ -0,0 +1,117 @@
+package com.beanmeat.milvus.service;
+
+import com.beanmeat.milvus.config.MilvusProperties;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 主键生成器的单调性与唯一性
+ */
+class SnowflakeIdGeneratorTest {
+
+    private static final String EPOCH = "2024-01-01T00:00:00Z";
+    private static final int NODE_ID = 5;
+
+    @Test
+    void idsAreUniqueAndIncreasingPerThreadUnderContention() throws Exception {
+        SnowflakeIdGenerator generator = generator(System::currentTimeMillis);
+        int threads = 8;
+        int perThread = 50_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<long[]>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    long[] ids = new long[perThread];
+                    for (int i = 0; i < perThread; i++) {
+                        ids[i] = generator.nextId();
+                    }
+                    return ids;
+                }));
+            }
+            start.countDown();
+
+            long[] all = new long[threads * perThread];
+            int offset = 0;
+            for (Future<long[]> future : futures) {
+                long[] ids = future.get();
+                for (int i = 1; i < ids.length; i++) {
+                    assertThat(ids[i]).isGreaterThan(ids[i - 1]);
+                }
+                System.arraycopy(ids, 0, all, offset, ids.length);
+                offset += ids.length;
+            }
+            Arrays.sort(all);
+            for (int i = 1; i < all.length; i++) {
+                assertThat(all[i]).isNotEqualTo(all[i - 1]);
+            }
+            assertThat(all[0]).isPositive();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void idsKeepIncreasingWhenClockMovesBackwards() {
+        AtomicLong now = new AtomicLong(Instant.parse("2025-06-01T00:00:00Z").toEpochMilli());
+        SnowflakeIdGenerator generator = generator(now::get);
+
+        long before = generator.nextId();
+        now.addAndGet(-5_000);
+        long during = generator.nextId();
+        long next = generator.nextId();
+        now.addAndGet(10_000);
+        long after = generator.nextId();
+
+        assertThat(during).isGreaterThan(before);
+        assertThat(next).isGreaterThan(during);
+        assertThat(after).isGreaterThan(next);
+        assertThat(timestamp(during)).isEqualTo(timestamp(before));
+        assertThat(timestamp(after)).isEqualTo(timestamp(before) + 5_000);
+    }
+
+    @Test
+    void exhaustedSequenceBorrowsNextMillisecond() {
+        AtomicLong now = new AtomicLong(Instant.parse("2025-06-01T00:00:00Z").toEpochMilli());
+        SnowflakeIdGenerator generator = generator(now::get);
+
+        long first = generator.nextId();
+        long previous = first;
+        for (int i = 1; i <= 4096; i++) {
+            long id = generator.nextId();
+            assertThat(id).isGreaterThan(previous);
+            previous = id;
+        }
+
+        assertThat(timestamp(previous)).isEqualTo(timestamp(first) + 1);
+        assertThat(previous & 0xFFF).isZero();
+        assertThat((previous >>> 12) & 0x3FF).isEqualTo(NODE_ID);
+    }
+
+    private static SnowflakeIdGenerator generator(LongSupplier clock) {
+        MilvusProperties properties = new MilvusProperties();
+        properties.getId().setEpoch(EPOCH);
+        properties.getId().setNodeId(NODE_ID);
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(properties, clock);
+        generator.init();
+        return generator;
+    }
+
+    private static long timestamp(long id) {
+        return id >>> 22;
+    }
+}
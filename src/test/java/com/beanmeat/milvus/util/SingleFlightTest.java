@@ -0,0 +1,144 @@
+package com.beanmeat.milvus.util;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 请求合并的共享结果与异常传播
+ */
+class SingleFlightTest {
+
+    private static final int CALLERS = 8;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SingleFlight<String, String> singleFlight = new SingleFlight<>("test", meterRegistry);
+
+    @Test
+    void concurrentCallersShareOneLoad() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < CALLERS; i++) {
+                results.add(executor.submit(() -> singleFlight.execute("key", () -> {
+                    loads.incrementAndGet();
+                    await(release);
+                    return "value";
+                })));
+            }
+            awaitCalls(CALLERS);
+            release.countDown();
+
+            for (Future<String> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("value");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(loads).hasValue(1);
+        assertThat(calls("leader")).isEqualTo(1);
+        assertThat(calls("shared")).isEqualTo(CALLERS - 1);
+        assertThat(meterRegistry.get("singleflight.inflight").gauge().value()).isZero();
+    }
+
+    @Test
+    void errorPropagatesToAllWaitersAndReleasesKey() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < CALLERS; i++) {
+                results.add(executor.submit(() -> singleFlight.execute("key", () -> {
+                    await(release);
+                    throw new IllegalStateException("boom");
+                })));
+            }
+            awaitCalls(CALLERS);
+            release.countDown();
+
+            for (Future<String> result : results) {
+                assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+                        .hasCauseInstanceOf(IllegalStateException.class)
+                        .hasRootCauseMessage("boom");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // 失败后不缓存，下一次调用重新执行
+        assertThat(singleFlight.execute("key", () -> "retry")).isEqualTo("retry");
+        assertThat(calls("leader")).isEqualTo(2);
+    }
+
+    @Test
+    void asyncCallersGetIndependentFutures() {
+        CompletableFuture<String> source = new CompletableFuture<>();
+        AtomicInteger loads = new AtomicInteger();
+
+        CompletableFuture<String> first = singleFlight.executeAsync("key", () -> {
+            loads.incrementAndGet();
+            return source;
+        });
+        CompletableFuture<String> second = singleFlight.executeAsync("key", () -> {
+            loads.incrementAndGet();
+            return CompletableFuture.completedFuture("other");
+        });
+
+        first.cancel(true);
+        source.complete("value");
+
+        assertThat(loads).hasValue(1);
+        assertThat(first).isCancelled();
+        assertThat(second.join()).isEqualTo("value");
+        assertThat(singleFlight.executeAsync("key", () -> CompletableFuture.completedFuture("next")).join())
+                .isEqualTo("next");
+    }
+
+    @Test
+    void asyncLoaderFailureCompletesExceptionally() {
+        CompletableFuture<String> result = singleFlight.executeAsync("key", () -> {
+            throw new IllegalArgumentException("bad");
+        });
+
+        assertThat(result).isCompletedExceptionally();
+        assertThat(meterRegistry.get("singleflight.inflight").gauge().value()).isZero();
+    }
+
+    private double calls(String role) {
+        return meterRegistry.get("singleflight.calls").tag("role", role).counter().count();
+    }
+
+    /**
+     * 等待所有调用方都进入singleflight（1个leader + 其余shared）
+     */
+    private void awaitCalls(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (calls("leader") + calls("shared") < expected) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.sleep(5);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}